@@ -0,0 +1,87 @@
+package ru.iopump.jdbi.db.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.io.Resources;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.jpa.JpaPlugin;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CRUD операции {@link CrudDao} на встроенной H2 (режим MySQL, схема из db.sql).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CrudDaoBenchmark {
+    private static final String BENCH_ENV_ID = "BENCH";
+
+    private Handle handle;
+    private OnlineLogDao dao;
+    private DaoConditionChain chain;
+    private int counter;
+    private int nextId = 1_000;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        final Jdbi jdbi = Jdbi.create("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL")
+                .installPlugin(new SqlObjectPlugin())
+                .installPlugin(new JpaPlugin());
+        // держит in-memory базу открытой до конца замера
+        handle = jdbi.open();
+        handle.createScript(Resources.toString(Resources.getResource("db.sql"), StandardCharsets.UTF_8)).execute();
+        dao = jdbi.onDemand(OnlineLogDao.class);
+        chain = new DaoConditionChain(DaoCondition.equal("env_id", "0000000003"))
+                .and(DaoCondition.like("saf_plan_id", "PLAN%"));
+    }
+
+    @Setup(Level.Iteration)
+    public void cleanUp() {
+        dao.deleteByColumnValue(new DaoConditionChain(DaoCondition.equal("env_id", BENCH_ENV_ID)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        handle.close();
+    }
+
+    @Benchmark
+    public void insert() {
+        dao.insert(new OnlineLogEntity(nextId++, BENCH_ENV_ID, null, "PLAN_B", "TNX_BENCH"));
+    }
+
+    @Benchmark
+    public Integer update() {
+        return dao.update(new OnlineLogEntity(1, "0000000001", null, "PLAN_" + (counter++ & 7), "TNX_TEST_1"));
+    }
+
+    @Benchmark
+    public Optional<OnlineLogEntity> findOne() {
+        return dao.findOne(1);
+    }
+
+    @Benchmark
+    public List<OnlineLogEntity> findListByColumnValue() {
+        return dao.findListByColumnValue(chain);
+    }
+}
@@ -0,0 +1,47 @@
+package ru.iopump.jdbi.db.dao;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.iopump.jdbi.db.exception.NoSubQueryResult;
+
+/**
+ * Формирование sql из {@link DaoConditionChain}: со встроенными значениями и с именованными параметрами.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DaoConditionChainBenchmark {
+    private DaoConditionChain chain;
+
+    @Setup
+    public void setUp() {
+        chain = new DaoConditionChain(DaoCondition.equal("env_id", "0000000003"))
+                .and(DaoCondition.like("saf_plan_id", "PLAN%"))
+                .and(DaoCondition.more("record_id", 1))
+                .or(DaoCondition.isNull("txn_source"))
+                .and(DaoCondition.less("record_id", 1000));
+    }
+
+    @Benchmark
+    public String asString() throws NoSubQueryResult {
+        return chain.asString();
+    }
+
+    @Benchmark
+    public String asStringBindings() throws NoSubQueryResult {
+        return chain.asString(new ConditionBindings());
+    }
+}
@@ -0,0 +1,49 @@
+package ru.iopump.jdbi.db.entity;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.iopump.jdbi.db.dao.OnlineLogEntity;
+
+/**
+ * Доступ к полям сущности через отражение: {@link AbstractEntity#allFields()} и {@link AbstractEntity#getFieldValue(String)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AbstractEntityBenchmark {
+    private OnlineLogEntity entity;
+
+    @Setup
+    public void setUp() {
+        entity = new OnlineLogEntity(1, "0000000001", LocalDateTime.of(2000, 1, 1, 0, 0), "PLAN_1", "TNX_TEST_1");
+    }
+
+    @Benchmark
+    public Entity.KeyValueMap allFields() {
+        return entity.allFields();
+    }
+
+    @Benchmark
+    public Object getFieldValueByColumn() {
+        return entity.getFieldValue("saf_plan_id");
+    }
+
+    @Benchmark
+    public Object getFieldValueByField() {
+        return entity.getFieldValue("safPlanId");
+    }
+}
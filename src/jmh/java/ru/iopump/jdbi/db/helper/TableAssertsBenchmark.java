@@ -0,0 +1,69 @@
+package ru.iopump.jdbi.db.helper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.iopump.jdbi.db.dao.OnlineLogEntity;
+
+/**
+ * {@link TableAsserts#assertRows(String, List, Map)} на больших списках записей.
+ * Ожидаемая запись последняя, т.е. проверяется весь список.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TableAssertsBenchmark {
+    @Param({"10000"})
+    private int rows;
+
+    private List<OnlineLogEntity> records;
+    private Map<String, String> expected;
+    private Map<String, String> expectedRegexp;
+
+    @Setup
+    public void setUp() {
+        records = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            records.add(new OnlineLogEntity(i,
+                    String.format("%010d", i),
+                    LocalDateTime.of(2000, 1, 1, 0, 0).plusSeconds(i),
+                    "PLAN_" + i % 10,
+                    i % 2 == 0 ? null : "TNX_" + i));
+        }
+        final int last = rows - 1;
+        expected = ImmutableMap.of(
+                "env_id", String.format("%010d", last),
+                "saf_plan_id", "PLAN_" + last % 10);
+        expectedRegexp = ImmutableMap.of(
+                "env_id", String.format("%010d", last),
+                "saf_plan_id", "{regexp:PLAN_\\d}");
+    }
+
+    @Benchmark
+    public void assertRows() {
+        TableAsserts.assertRows("online_log", records, expected);
+    }
+
+    @Benchmark
+    public void assertRowsRegexp() {
+        TableAsserts.assertRows("online_log", records, expectedRegexp);
+    }
+}
@@ -2,39 +2,46 @@ package ru.iopump.jdbi.cucumber;
 
 import static java.lang.String.format;
 
-import java.lang.invoke.MethodHandles.Lookup;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.Maps;
 import io.cucumber.datatable.DataTable;
 import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.sqlobject.config.RegisterBeanMapper;
+import ru.iopump.jdbi.db.cache.CacheSettings;
+import ru.iopump.jdbi.db.cache.DaoCache;
 import ru.iopump.jdbi.db.dao.CrudDao;
 import ru.iopump.jdbi.db.dao.Dao;
 import ru.iopump.jdbi.db.dao.DaoCondition;
 import ru.iopump.jdbi.db.dao.DaoConditionChain;
+import ru.iopump.jdbi.db.dao.index.DaoIndex;
 import ru.iopump.jdbi.db.entity.Entity;
 import ru.iopump.jdbi.db.exception.DbException;
 import ru.iopump.jdbi.util.ReflectionUtils;
 
 
 @SuppressWarnings("unused")
+@Slf4j
 public class DbHelper {
 
     private final String[] daoPackages;
 
-    private final Object DAO_CLASSES_LOCK = new Object();
-    private Map<String, Class<? extends CrudDao>> DAO_CLASSES_CACHE;
+    private final Supplier<Map<String, Class<? extends CrudDao>>> DAO_CLASSES_CACHE = Suppliers.memoize(this::loadDaoClasses);
 
     public DbHelper(String... daoPackages) {
         this.daoPackages = daoPackages;
@@ -57,31 +64,13 @@ public class DbHelper {
      * Загрузить {@link CrudDao} по имени таблицы.
      * Имя таблицы проверяется в первую очередь, если имеется аннотация {@link Dao}, если аннотации нет (или значение пустое),
      * то вызывается метод {@link CrudDao#getTableName()}.
+     * DAO создается один раз на пару (Jdbi, таблица) и переиспользуется, пока жив Jdbi, см. {@link DbHelperDaos}.
+     * Если в {@link Dao} включен кэш, то возвращается кэширующий DAO, см. {@link DaoCache}.
      */
     @NonNull
     public <DAO extends CrudDao> DAO loadDaoByTableName(@NonNull Jdbi jdbi,
                                                         @Nullable String table) {
-
-        synchronized (DAO_CLASSES_LOCK) {
-            if (DAO_CLASSES_CACHE == null) {
-                DAO_CLASSES_CACHE = ReflectionUtils.getAllClasses(CrudDao.class, daoPackages)
-                        .stream()
-                        .filter(i -> i != CrudDao.class)
-                        .map(this::getTableClass)
-                        .filter(Objects::nonNull)
-                        .collect(Collectors.toMap(Pair::getKey,
-                                Pair::getValue,
-                                (one, two) -> {
-                                    // если есть Dao аннотация, то использовать именно этот класс в первую очередь.
-                                    if (two.isAnnotationPresent(Dao.class)) {
-                                        return two;
-                                    } else {
-                                        return one;
-                                    }
-                                }));
-            }
-        }
-        final Class<? extends CrudDao> cls = DAO_CLASSES_CACHE.get(StringUtils.upperCase(table));
+        final Class<? extends CrudDao> cls = DAO_CLASSES_CACHE.get().get(StringUtils.upperCase(table));
         if (cls == null) {
             throw new IllegalArgumentException(format("Не найдено CrudDao для таблицы %s в пакете %s",
                     table,
@@ -89,7 +78,7 @@ public class DbHelper {
             );
         }
         //noinspection unchecked
-        return (DAO) jdbi.onDemand(cls);
+        return (DAO) jdbi.getConfig(DbHelperDaos.class).daos().computeIfAbsent(cls, key -> createDao(jdbi, cls));
     }
 
     /**
@@ -135,6 +124,78 @@ public class DbHelper {
     }
 
     //region Private
+
+    @SuppressWarnings("unchecked")
+    private CrudDao createDao(Jdbi jdbi, Class<? extends CrudDao> cls) {
+        final CrudDao dao = jdbi.onDemand(cls);
+        if (CacheSettings.of(cls).isEnabled()) {
+            return DaoCache.wrap((Class<CrudDao>) cls, dao);
+        }
+        return dao;
+    }
+
+    /**
+     * DAO классы по индексу {@link DaoIndex}, сформированному при компиляции.
+     * Пакеты из daoPackages, для которых в индексе нет ни одного DAO, сканируются.
+     * <br/>Индекс пакета считается полным, поэтому {@link ru.iopump.jdbi.db.dao.index.DaoIndexProcessor}
+     * должен быть подключен в каждом модуле с DAO. Иначе DAO модуля без индекса не будут найдены,
+     * если в том же пакете есть проиндексированные DAO другого модуля.
+     */
+    private Map<String, Class<? extends CrudDao>> loadDaoClasses() {
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        final List<Pair<String, Class<? extends CrudDao>>> tableClasses = new ArrayList<>();
+        final Set<String> indexedPackages = new HashSet<>();
+        DaoIndex.read(classLoader).forEach((className, tableName) -> {
+            final List<String> packages = daoPackagesOf(className);
+            if (packages.isEmpty()) {
+                return;
+            }
+            indexedPackages.addAll(packages);
+            try {
+                final Class<? extends CrudDao> cls = Class.forName(className, false, classLoader).asSubclass(CrudDao.class);
+                tableClasses.add(StringUtils.isBlank(tableName)
+                        ? getTableClass(cls)
+                        : Pair.of(StringUtils.upperCase(tableName), cls));
+            } catch (ClassNotFoundException | ClassCastException e) {
+                log.warn("[DAO INDEX] Класс {} из индекса не найден", className);
+            }
+        });
+        final String[] notIndexed = daoPackages == null ? new String[0] : Arrays.stream(daoPackages)
+                .filter(StringUtils::isNotBlank)
+                .filter(pkg -> !indexedPackages.contains(pkg))
+                .toArray(String[]::new);
+        if (notIndexed.length > 0) {
+            log.warn("[DAO INDEX] Индекс для пакетов {} не найден, сканирование пакетов. " +
+                    "Подключите DaoIndexProcessor в модулях с DAO", Arrays.toString(notIndexed));
+            ReflectionUtils.getAllClasses(CrudDao.class, notIndexed)
+                    .stream()
+                    .filter(i -> i != CrudDao.class)
+                    .map(this::getTableClass)
+                    .forEach(tableClasses::add);
+        }
+        return tableClasses.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toMap(Pair::getKey,
+                        Pair::getValue,
+                        (one, two) -> {
+                            // если есть Dao аннотация, то использовать именно этот класс в первую очередь.
+                            if (two.isAnnotationPresent(Dao.class)) {
+                                return two;
+                            } else {
+                                return one;
+                            }
+                        }));
+    }
+
+    private List<String> daoPackagesOf(String className) {
+        if (daoPackages == null) {
+            return new ArrayList<>();
+        }
+        return Arrays.stream(daoPackages)
+                .filter(pkg -> StringUtils.isNotBlank(pkg) && className.startsWith(pkg + "."))
+                .collect(Collectors.toList());
+    }
+
     @Nullable
     private Pair<String, Class<? extends CrudDao>> getTableClass(@NonNull Class<? extends CrudDao> crudDaoClass) {
         String tableName = null;
@@ -151,17 +212,7 @@ public class DbHelper {
                 final CrudDao proxy = (CrudDao) Proxy.newProxyInstance(
                         Thread.currentThread().getContextClassLoader(),
                         new Class[]{crudDaoClass},
-                        (p, m, a) -> {
-                            final Method method = crudDaoClass.getMethod("getTableName");
-                            Constructor<Lookup> constructor = Lookup.class
-                                    .getDeclaredConstructor(Class.class);
-                            constructor.setAccessible(true);
-                            return constructor.newInstance(crudDaoClass)
-                                    .in(crudDaoClass)
-                                    .unreflectSpecial(method, crudDaoClass)
-                                    .bindTo(p)
-                                    .invokeWithArguments();
-                        }
+                        (p, m, a) -> ReflectionUtils.invokeDefault(crudDaoClass, p, m, a)
                 );
                 tableName = proxy.getTableName();
             } catch (Throwable e) {
@@ -0,0 +1,40 @@
+package ru.iopump.jdbi.cucumber;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jdbi.v3.core.config.JdbiConfig;
+import ru.iopump.jdbi.db.dao.CrudDao;
+
+/**
+ * DAO, созданные {@link DbHelper} для Jdbi. Хранятся в настройках самого Jdbi, поэтому освобождаются вместе с ним:
+ * внешний кэш с ключом Jdbi удерживал бы каждый Jdbi (DAO ссылается на свой Jdbi, и слабый ключ не помогает).
+ * <br/>Копии настроек для Handle разделяют одну карту.
+ */
+public class DbHelperDaos implements JdbiConfig<DbHelperDaos> {
+    private final ConcurrentMap<Class<? extends CrudDao>, CrudDao> daos;
+
+    public DbHelperDaos() {
+        this.daos = new ConcurrentHashMap<>();
+    }
+
+    private DbHelperDaos(DbHelperDaos that) {
+        this.daos = that.daos;
+    }
+
+    ConcurrentMap<Class<? extends CrudDao>, CrudDao> daos() {
+        return daos;
+    }
+
+    /**
+     * Удалить созданные DAO, например после смены настроек кэша.
+     */
+    public void clear() {
+        daos.clear();
+    }
+
+    @Override
+    public DbHelperDaos createCopy() {
+        return new DbHelperDaos(this);
+    }
+}
@@ -0,0 +1,61 @@
+package ru.iopump.jdbi.db.cache;
+
+import lombok.NonNull;
+import lombok.Value;
+import ru.iopump.jdbi.db.dao.Dao;
+
+/**
+ * Настройки кэширующей обертки {@link DaoCache}. Неизменяемые, меняются через with-методы.
+ */
+@Value
+public class CacheSettings {
+    private static final CacheSettings NONE = new CacheSettings(0, 0, 0, 0);
+
+    /**
+     * Размер кэша записей по id, 0 - кэш выключен.
+     */
+    long entityCacheSize;
+    /**
+     * Время жизни записи в кэше по id в секундах.
+     */
+    long entityCacheTtlSec;
+    /**
+     * Максимальное суммарное кол-во строк в кэше результатов запросов, 0 - кэш выключен.
+     */
+    long queryCacheMaxRows;
+    /**
+     * Время жизни результата в общем кэше запросов в секундах.
+     * 0 - результаты кэшируются только внутри {@link QueryCacheScope}.
+     */
+    long queryCacheTtlSec;
+
+    /**
+     * Кэш выключен.
+     */
+    public static CacheSettings none() {
+        return NONE;
+    }
+
+    /**
+     * Настройки из {@link Dao} интерфейса DAO.
+     */
+    public static CacheSettings of(@NonNull Class<?> daoType) {
+        final Dao dao = daoType.getAnnotation(Dao.class);
+        if (dao == null) {
+            return NONE;
+        }
+        return new CacheSettings(dao.cacheSize(), dao.cacheTtlSec(), dao.queryCacheMaxRows(), dao.queryCacheTtlSec());
+    }
+
+    public CacheSettings withEntityCache(long size, long ttlSec) {
+        return new CacheSettings(size, ttlSec, queryCacheMaxRows, queryCacheTtlSec);
+    }
+
+    public CacheSettings withQueryCache(long maxRows, long ttlSec) {
+        return new CacheSettings(entityCacheSize, entityCacheTtlSec, maxRows, ttlSec);
+    }
+
+    public boolean isEnabled() {
+        return entityCacheSize > 0 || queryCacheMaxRows > 0;
+    }
+}
@@ -0,0 +1,26 @@
+package ru.iopump.jdbi.db.cache;
+
+import com.google.common.cache.CacheStats;
+import ru.iopump.jdbi.db.dao.CrudDao;
+
+/**
+ * DAO с кэшем, см. {@link DaoCache#wrap(Class, CrudDao)}.
+ * Реализуется прокси вместе с интерфейсом DAO: {@code ((CachedDao) dao).entityCacheStats()}.
+ */
+public interface CachedDao {
+
+    /**
+     * Статистика кэша записей по id: попадания, промахи, вытеснения.
+     */
+    CacheStats entityCacheStats();
+
+    /**
+     * Статистика общего кэша запросов. Обращения внутри {@link QueryCacheScope} не учитываются.
+     */
+    CacheStats queryCacheStats();
+
+    /**
+     * Очистить кэш записей и общий кэш запросов.
+     */
+    void invalidateCache();
+}
@@ -0,0 +1,211 @@
+package ru.iopump.jdbi.db.cache;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import ru.iopump.jdbi.db.dao.CrudDao;
+import ru.iopump.jdbi.db.dao.DaoConditionChain;
+import ru.iopump.jdbi.db.entity.Entity;
+
+/**
+ * Обработчик прокси {@link DaoCache}.
+ * Методы чтения делегируются как есть, findOne и findListByColumnValue(цепочка) читают через кэш,
+ * остальные методы считаются записью и сбрасывают кэш.
+ */
+@Slf4j
+final class CachingDaoHandler implements InvocationHandler {
+    private static final CacheStats EMPTY_STATS = new CacheStats(0, 0, 0, 0, 0, 0);
+    private static final String[] READ_PREFIXES = {
+            "find", "count", "exists", "stream", "withStream", "page", "iterate", "get",
+            "internalFind", "internalCount", "internalExists", "internalStream", "internalQuery"
+    };
+
+    private final CrudDao<?, ?> delegate;
+    @Nullable
+    private final Cache<Object, Object> entityCache;
+    @Nullable
+    private final Cache<List<Object>, List<?>> queryCache;
+    private final boolean queryCaching;
+    /**
+     * Увеличивается перед каждым сбросом кэша записей. Загрузка, во время которой был сброс, не остается в кэше.
+     */
+    private final AtomicLong entityGeneration = new AtomicLong();
+    /**
+     * То же для кэша запросов и областей {@link QueryCacheScope}.
+     */
+    private final AtomicLong queryGeneration = new AtomicLong();
+    private volatile String tableName;
+
+    CachingDaoHandler(CrudDao<?, ?> delegate,
+                      @Nullable Cache<Object, Object> entityCache,
+                      @Nullable Cache<List<Object>, List<?>> queryCache,
+                      boolean queryCaching) {
+        this.delegate = delegate;
+        this.entityCache = entityCache;
+        this.queryCache = queryCache;
+        this.queryCaching = queryCaching;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == CachedDao.class) {
+            return cachedDao(method);
+        }
+        if (method.getDeclaringClass() == Object.class) {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return "Cached" + delegate;
+            }
+        }
+        final String name = method.getName();
+        if (entityCache != null && name.equals("findOne") && args != null && args.length == 1) {
+            return findOne(method, args);
+        }
+        if (queryCaching && name.equals("findListByColumnValue")
+                && args != null && args.length == 1 && args[0] instanceof DaoConditionChain) {
+            return findList(method, args);
+        }
+        if (StringUtils.startsWithAny(name, READ_PREFIXES)) {
+            return call(method, args);
+        }
+        try {
+            return call(method, args);
+        } finally {
+            invalidate(name, args);
+        }
+    }
+
+    //region Private
+    private Object cachedDao(Method method) {
+        switch (method.getName()) {
+            case "entityCacheStats":
+                return entityCache == null ? EMPTY_STATS : entityCache.stats();
+            case "queryCacheStats":
+                return queryCache == null ? EMPTY_STATS : queryCache.stats();
+            default:
+                if (entityCache != null) {
+                    entityGeneration.incrementAndGet();
+                    entityCache.invalidateAll();
+                }
+                if (queryCache != null) {
+                    queryGeneration.incrementAndGet();
+                    queryCache.invalidateAll();
+                }
+                return null;
+        }
+    }
+
+    private Object findOne(Method method, Object[] args) throws Throwable {
+        final Object cached = entityCache.getIfPresent(args[0]);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        final long generation = entityGeneration.get();
+        final Optional<?> loaded = (Optional<?>) call(method, args);
+        if (loaded.isPresent() && entityGeneration.get() == generation) {
+            entityCache.put(args[0], loaded.get());
+            // сброс между проверкой и put: запись могла быть загружена до изменения
+            if (entityGeneration.get() != generation) {
+                entityCache.invalidate(args[0]);
+            }
+        }
+        return loaded;
+    }
+
+    private Object findList(Method method, Object[] args) throws Throwable {
+        final QueryCacheScope scope = QueryCacheScope.current();
+        final List<Object> normalized = ((DaoConditionChain) args[0]).normalized();
+        if (normalized == null || (scope == null && queryCache == null)) {
+            return call(method, args);
+        }
+        // область общая для всех DAO потока: одноименные таблицы разных БД различаются по обработчику DAO
+        final List<Object> key = Arrays.asList(tableName(), this, normalized);
+        List<?> rows = scope != null ? scope.get(key) : queryCache.getIfPresent(key);
+        if (rows == null) {
+            final long generation = queryGeneration.get();
+            rows = (List<?>) call(method, args);
+            if (queryGeneration.get() == generation) {
+                if (scope != null) {
+                    scope.put(key, rows);
+                } else {
+                    queryCache.put(key, rows);
+                    // сброс между проверкой и put: результат мог быть получен до изменения
+                    if (queryGeneration.get() != generation) {
+                        queryCache.invalidate(key);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(rows);
+    }
+
+    /**
+     * Запись по одной сущности или id сбрасывает только ее в кэше записей, остальные изменения - весь кэш записей.
+     * Кэш запросов сбрасывается по таблице при любой записи.
+     */
+    private void invalidate(String name, Object[] args) {
+        queryGeneration.incrementAndGet();
+        if (queryCache != null) {
+            queryCache.invalidateAll();
+        }
+        if (queryCaching) {
+            QueryCacheScope.invalidateAll(tableName());
+        }
+        if (entityCache == null) {
+            return;
+        }
+        entityGeneration.incrementAndGet();
+        final Object single = args != null && args.length == 1 ? args[0] : null;
+        if (single instanceof Entity) {
+            // новая запись без id не может быть в кэше: пустой результат не кэшируется
+            final Object id = ((Entity<?>) single).id();
+            if (id != null) {
+                entityCache.invalidate(id);
+            }
+        } else if (name.equals("delete") && single != null) {
+            entityCache.invalidate(single);
+        } else if (name.equals("deleteAll") && args[0] instanceof Collection) {
+            entityCache.invalidateAll((Collection<?>) args[0]);
+        } else {
+            log.debug("[CACHE] Сброс кэша {} после вызова {}", tableName(), name);
+            entityCache.invalidateAll();
+        }
+    }
+
+    /**
+     * Имя таблицы запрашивается у DAO один раз: у DAO из onDemand каждый вызов открывает соединение.
+     */
+    private String tableName() {
+        String result = tableName;
+        if (result == null) {
+            result = StringUtils.upperCase(delegate.getTableName());
+            tableName = result;
+        }
+        return result;
+    }
+
+    private Object call(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+    //endregion
+}
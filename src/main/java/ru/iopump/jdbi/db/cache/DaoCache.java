@@ -0,0 +1,103 @@
+package ru.iopump.jdbi.db.cache;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import ru.iopump.jdbi.db.dao.CrudDao;
+import ru.iopump.jdbi.db.dao.Dao;
+import ru.iopump.jdbi.db.dao.DaoConditionChain;
+
+/**
+ * Кэширующая обертка над DAO для таблиц, которые читаются часто, а меняются редко.
+ * <br/>Кэш записей: {@link CrudDao#findOne(Object)} читает через кэш по id (LRU + TTL), пустой результат не кэшируется.
+ * <br/>Кэш запросов: {@link CrudDao#findListByColumnValue(DaoConditionChain)} читает через кэш по таблице и
+ * {@link DaoConditionChain#normalized()}. Внутри {@link QueryCacheScope} - из кэша области,
+ * иначе из общего кэша с TTL. Размер ограничен суммарным кол-вом строк.
+ * <br/>Запись через эту же обертку (insert, update, delete, truncate и т.д.) сбрасывает затронутые записи кэша.
+ * Изменения в обход обертки (другим DAO, другим процессом) видны только после истечения TTL или закрытия области.
+ * <br/>Записи из кэша общие для всех потоков, их нельзя изменять.
+ */
+@UtilityClass
+public class DaoCache {
+
+    /**
+     * Обернуть DAO в кэш по настройкам {@link Dao} его интерфейса, см. {@link CacheSettings#of(Class)}.
+     * Если кэш не включен, то возвращается исходный DAO.
+     *
+     * @param daoType Интерфейс DAO.
+     * @param dao     DAO, например из {@code jdbi.onDemand(..)}.
+     */
+    @NonNull
+    public <DAO extends CrudDao> DAO wrap(@NonNull Class<DAO> daoType, @NonNull DAO dao) {
+        final CacheSettings settings = CacheSettings.of(daoType);
+        if (!settings.isEnabled()) {
+            return dao;
+        }
+        return wrap(daoType, dao, settings);
+    }
+
+    /**
+     * Обернуть DAO в кэш записей по id.
+     *
+     * @param daoType Интерфейс DAO.
+     * @param dao     DAO, например из {@code jdbi.onDemand(..)}.
+     * @param size    Максимальное кол-во записей в кэше.
+     * @param ttlSec  Время жизни записи в кэше с момента загрузки.
+     * @return Прокси, реализующий daoType и {@link CachedDao}.
+     */
+    @NonNull
+    public <DAO extends CrudDao> DAO wrap(@NonNull Class<DAO> daoType, @NonNull DAO dao, long size, long ttlSec) {
+        if (size <= 0) {
+            throw new IllegalArgumentException(String.format("Размер кэша должен быть больше 0, а не %d", size));
+        }
+        return wrap(daoType, dao, CacheSettings.none().withEntityCache(size, ttlSec));
+    }
+
+    /**
+     * Обернуть DAO в кэш по настройкам.
+     *
+     * @param daoType  Интерфейс DAO.
+     * @param dao      DAO, например из {@code jdbi.onDemand(..)}.
+     * @param settings Настройки кэша.
+     * @return Прокси, реализующий daoType и {@link CachedDao}.
+     */
+    @NonNull
+    public <DAO extends CrudDao> DAO wrap(@NonNull Class<DAO> daoType,
+                                          @NonNull DAO dao,
+                                          @NonNull CacheSettings settings) {
+        Cache<Object, Object> entityCache = null;
+        if (settings.getEntityCacheSize() > 0) {
+            entityCache = CacheBuilder.newBuilder()
+                    .maximumSize(settings.getEntityCacheSize())
+                    .expireAfterWrite(settings.getEntityCacheTtlSec(), TimeUnit.SECONDS)
+                    .recordStats()
+                    .build();
+        }
+        Cache<List<Object>, List<?>> queryCache = null;
+        if (settings.getQueryCacheMaxRows() > 0 && settings.getQueryCacheTtlSec() > 0) {
+            queryCache = CacheBuilder.newBuilder()
+                    .maximumWeight(settings.getQueryCacheMaxRows())
+                    .weigher((Weigher<List<Object>, List<?>>) (key, rows) -> Math.max(1, rows.size()))
+                    .expireAfterWrite(settings.getQueryCacheTtlSec(), TimeUnit.SECONDS)
+                    .recordStats()
+                    .build();
+        }
+        //noinspection unchecked
+        return (DAO) Proxy.newProxyInstance(daoType.getClassLoader(),
+                new Class[]{daoType, CachedDao.class},
+                new CachingDaoHandler(dao, entityCache, queryCache, settings.getQueryCacheMaxRows() > 0));
+    }
+
+    /**
+     * Проверить, что DAO обернут в кэш.
+     */
+    public boolean isCached(@NonNull Object dao) {
+        return dao instanceof CachedDao;
+    }
+}
@@ -0,0 +1,115 @@
+package ru.iopump.jdbi.db.cache;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+import lombok.NonNull;
+
+/**
+ * Область кэша результатов запросов, привязанная к текущему потоку: запрос, транзакция, шаг теста.
+ * <pre>{@code
+ * try (QueryCacheScope scope = QueryCacheScope.open()) {
+ *     dao.findListByColumnValue(chain); // запрос к СУБД
+ *     dao.findListByColumnValue(chain); // из кэша области
+ * }
+ * }</pre>
+ * Внутри области DAO с включенным кэшем запросов ({@link CacheSettings#getQueryCacheMaxRows()})
+ * берут результаты из области вместо общего кэша. Результаты разных DAO не смешиваются,
+ * даже если у них одинаковое имя таблицы (например, одна таблица в разных БД).
+ * Запись через такой DAO сбрасывает результаты по его таблице во всех DAO.
+ * Области могут быть вложенными, у вложенной области свой кэш.
+ */
+public final class QueryCacheScope implements AutoCloseable {
+    /**
+     * Максимальное суммарное кол-во строк в области по умолчанию.
+     */
+    public static final long DEFAULT_MAX_ROWS = 10_000;
+    private static final ThreadLocal<QueryCacheScope> CURRENT = new ThreadLocal<>();
+
+    @Nullable
+    private final QueryCacheScope parent;
+    private final long maxRows;
+    private final Map<List<Object>, List<?>> results = new HashMap<>();
+    private long rows;
+
+    private QueryCacheScope(@Nullable QueryCacheScope parent, long maxRows) {
+        this.parent = parent;
+        this.maxRows = maxRows;
+    }
+
+    public static QueryCacheScope open() {
+        return open(DEFAULT_MAX_ROWS);
+    }
+
+    /**
+     * Открыть область в текущем потоке.
+     *
+     * @param maxRows Максимальное суммарное кол-во строк. Результаты сверх лимита не кэшируются.
+     */
+    public static QueryCacheScope open(long maxRows) {
+        final QueryCacheScope scope = new QueryCacheScope(CURRENT.get(), maxRows);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Кол-во закэшированных строк.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    @Override
+    public void close() {
+        if (CURRENT.get() != this) {
+            throw new IllegalStateException("Закрывать можно только текущую область кэша, начиная с вложенной");
+        }
+        results.clear();
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+
+    //region Package
+    @Nullable
+    static QueryCacheScope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Сбросить результаты по таблице во всех открытых областях текущего потока.
+     */
+    static void invalidateAll(@NonNull String tableName) {
+        for (QueryCacheScope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.invalidate(tableName);
+        }
+    }
+
+    @Nullable
+    List<?> get(@NonNull List<Object> key) {
+        return results.get(key);
+    }
+
+    void put(@NonNull List<Object> key, @NonNull List<?> value) {
+        if (rows + value.size() > maxRows) {
+            return;
+        }
+        final List<?> previous = results.put(key, value);
+        rows += value.size() - (previous == null ? 0 : previous.size());
+    }
+
+    private void invalidate(String tableName) {
+        results.entrySet().removeIf(entry -> {
+            if (tableName.equals(entry.getKey().get(0))) {
+                rows -= entry.getValue().size();
+                return true;
+            }
+            return false;
+        });
+    }
+    //endregion
+}
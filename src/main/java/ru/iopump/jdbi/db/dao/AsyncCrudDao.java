@@ -0,0 +1,217 @@
+package ru.iopump.jdbi.db.dao;
+
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Getter;
+import lombok.NonNull;
+import ru.iopump.jdbi.db.entity.Entity;
+
+/**
+ * Асинхронный фасад над {@link CrudDao}. Операции выполняются на executor и возвращают {@link CompletableFuture}.
+ * <br/>Одновременно выполняется не более maxConcurrency операций, остальные ждут в очереди без блокировки потоков,
+ * поэтому пул соединений не исчерпывается при массовом параллельном запуске.
+ * <br/>Предназначен для DAO из {@code jdbi.onDemand(..)}: каждая операция получает собственное соединение.
+ * DAO, привязанный к одному Handle, использовать нельзя - Handle не потокобезопасен.
+ *
+ * @param <ENTITY> Тип записи.
+ * @param <ID>     Тип ID записи.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class AsyncCrudDao<ENTITY extends Entity<ID>, ID> implements AutoCloseable {
+    @Getter
+    private final CrudDao<ENTITY, ID> dao;
+    private final Executor executor;
+    private final boolean ownExecutor;
+    private final Semaphore permits;
+    private final Queue<Task<?>> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Фасад на собственном executor из {@link #defaultExecutor(int)}, закрывается в {@link #close()}.
+     */
+    public AsyncCrudDao(@NonNull CrudDao<ENTITY, ID> dao, int maxConcurrency) {
+        this(dao, defaultExecutor(maxConcurrency), maxConcurrency, true);
+    }
+
+    /**
+     * Фасад на внешнем executor, executor не закрывается в {@link #close()}.
+     */
+    public AsyncCrudDao(@NonNull CrudDao<ENTITY, ID> dao, @NonNull Executor executor, int maxConcurrency) {
+        this(dao, executor, maxConcurrency, false);
+    }
+
+    private AsyncCrudDao(CrudDao<ENTITY, ID> dao, Executor executor, int maxConcurrency, boolean ownExecutor) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException(format("Ограничение параллельности должно быть больше 0, а не %d", maxConcurrency));
+        }
+        this.dao = dao;
+        this.executor = executor;
+        this.ownExecutor = ownExecutor;
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * Executor на виртуальных потоках, если JDK их поддерживает (21+),
+     * иначе пул из poolSize daemon потоков.
+     */
+    public static ExecutorService defaultExecutor(int poolSize) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException notSupported) {
+            return Executors.newFixedThreadPool(poolSize, new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("async-crud-dao-%d")
+                    .build());
+        }
+    }
+
+    //region Operations
+    public CompletableFuture<Optional<ENTITY>> findOne(@NonNull ID id) {
+        return call(dao -> dao.findOne(id));
+    }
+
+    public CompletableFuture<List<ENTITY>> findListByColumnValue(@NonNull DaoConditionChain conditionChain) {
+        return call(dao -> dao.findListByColumnValue(conditionChain));
+    }
+
+    /**
+     * Найти записи по списку id. Пачки по chunkSize id выполняются параллельно, каждая на своем соединении.
+     *
+     * @return Future с записями [id : запись] в порядке ids, см. {@link CrudDao#findAllById(Collection, int)}.
+     */
+    public CompletableFuture<Map<ID, ENTITY>> findAllById(@NonNull Collection<ID> ids, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException(format("Размер пачки должен быть больше 0, а не %d", chunkSize));
+        }
+        final List<CompletableFuture<Map<ID, ENTITY>>> chunks = new ArrayList<>();
+        for (List<ID> chunk : Iterables.partition(new LinkedHashSet<>(ids), chunkSize)) {
+            chunks.add(call(dao -> dao.findAllById(chunk, chunkSize)));
+        }
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]))
+                .thenApply(ignore -> {
+                    final List<ENTITY> found = new ArrayList<>();
+                    chunks.forEach(chunk -> found.addAll(chunk.join().values()));
+                    return CrudDaoUtils.orderById(ids, found);
+                });
+    }
+
+    public CompletableFuture<Void> insert(@NonNull ENTITY entity) {
+        return call(dao -> {
+            dao.insert(entity);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> insertAll(@NonNull Collection<ENTITY> entities) {
+        return call(dao -> {
+            dao.insertAll(entities);
+            return null;
+        });
+    }
+
+    public CompletableFuture<ID> update(@NonNull ENTITY entity) {
+        return call(dao -> dao.update(entity));
+    }
+
+    public CompletableFuture<Integer> delete(@NonNull ID id) {
+        return call(dao -> dao.delete(id));
+    }
+
+    public CompletableFuture<Long> count() {
+        return call(CrudDao::count);
+    }
+
+    public CompletableFuture<Long> count(@NonNull DaoConditionChain conditionChain) {
+        return call(dao -> dao.count(conditionChain));
+    }
+
+    /**
+     * Выполнить произвольную операцию DAO с учетом ограничения параллельности.
+     *
+     * @param operation Операция.
+     * @return Future с результатом операции.
+     */
+    public <T> CompletableFuture<T> call(@NonNull Function<CrudDao<ENTITY, ID>, T> operation) {
+        final Task<T> task = new Task<>(operation);
+        pending.add(task);
+        drain();
+        return task.future;
+    }
+    //endregion
+
+    /**
+     * Закрыть собственный executor. Уже запущенные операции завершатся, ожидающие в очереди будут отменены.
+     */
+    @Override
+    public void close() {
+        if (ownExecutor) {
+            ((ExecutorService) executor).shutdown();
+        }
+        Task<?> task;
+        while ((task = pending.poll()) != null) {
+            task.future.cancel(false);
+        }
+    }
+
+    //region Private
+    private void drain() {
+        while (!pending.isEmpty() && permits.tryAcquire()) {
+            final Task<?> task = pending.poll();
+            if (task == null) {
+                permits.release();
+                continue;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                        drain();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                task.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private final class Task<T> {
+        private final Function<CrudDao<ENTITY, ID>, T> operation;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private Task(Function<CrudDao<ENTITY, ID>, T> operation) {
+            this.operation = operation;
+        }
+
+        private void run() {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(operation.apply(dao));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+    //endregion
+}
@@ -1,11 +1,59 @@
 package ru.iopump.jdbi.db.dao;
 
+import java.util.function.Predicate;
 import javax.annotation.Nullable;
 
+import lombok.NonNull;
+import ru.iopump.jdbi.db.entity.Entity;
+
 public interface Condition {
     /**
      * Условие в виде части строки sql в синтаксисе (СУБД) или null, если условие следует исключить из цепочки.
      */
     @Nullable
     String asString();
+
+    /**
+     * Условие в виде части строки sql, где значения заменены именованными параметрами из bindings,
+     * или null, если условие следует исключить из цепочки.
+     * <br/>По умолчанию значения встраиваются в строку через {@link #asString()}.
+     *
+     * @param bindings Накопитель значений параметров запроса.
+     */
+    @Nullable
+    default String asString(@NonNull ConditionBindings bindings) {
+        return asString();
+    }
+
+    /**
+     * Условие в виде предиката для проверки уже загруженной записи
+     * или null, если условие нельзя проверить без обращения к СУБД.
+     * Предикат должен давать тот же результат, что и sql, иначе - бросать
+     * {@link ru.iopump.jdbi.db.exception.PredicateNotApplicable}.
+     */
+    @Nullable
+    default Predicate<Entity<?>> asPredicate() {
+        return null;
+    }
+
+    /**
+     * Предикат-фильтр кандидатов: пропускает каждую запись, подходящую по sql, но может пропускать и лишние.
+     * Нужен для условий, точный результат которых зависит от СУБД (сопоставление строк),
+     * подходящие кандидаты затем проверяются запросом.
+     * По умолчанию совпадает с {@link #asPredicate()}.
+     *
+     * @return Предикат или null, если условие нельзя проверить без обращения к СУБД.
+     */
+    @Nullable
+    default Predicate<Entity<?>> asCandidatePredicate() {
+        return asPredicate();
+    }
+
+    /**
+     * Условие зависит только от своих полей, т.е. одинаковые условия дают одинаковый результат запроса.
+     * Ложно для условий, которые при формировании sql сами обращаются к СУБД или зависят от других таблиц.
+     */
+    default boolean isCacheable() {
+        return true;
+    }
 }
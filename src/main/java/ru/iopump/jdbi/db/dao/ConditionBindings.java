@@ -0,0 +1,55 @@
+package ru.iopump.jdbi.db.dao;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Накопитель значений условий для передачи в запрос через именованные параметры JDBC.
+ * <br/>Имена параметров выдаются по порядку (:c0, :c1, ...), поэтому одинаковые по структуре цепочки условий
+ * дают одинаковый текст sql и могут переиспользовать подготовленный запрос.
+ */
+public final class ConditionBindings {
+    private static final String PARAMETER_PREFIX = "c";
+
+    private final Map<String, Object> values = new LinkedHashMap<>();
+
+    /**
+     * Зарегистрировать значение.
+     *
+     * @param value Значение параметра.
+     * @return Именованный параметр для подстановки в sql, например ':c0'.
+     */
+    public String bind(@Nullable Object value) {
+        final String name = PARAMETER_PREFIX + values.size();
+        values.put(name, value);
+        return ":" + name;
+    }
+
+    /**
+     * Текущая позиция для последующего отката через {@link #reset(int)}.
+     */
+    int mark() {
+        return values.size();
+    }
+
+    /**
+     * Удалить значения, зарегистрированные после mark. Используется, если часть условия была исключена.
+     */
+    void reset(int mark) {
+        values.keySet().removeIf(name -> Integer.parseInt(name.substring(PARAMETER_PREFIX.length())) >= mark);
+    }
+
+    /**
+     * @return Неизменяемая карта [имя параметра : значение].
+     */
+    public Map<String, Object> getValues() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    @Override
+    public String toString() {
+        return values.toString();
+    }
+}
@@ -3,18 +3,33 @@ package ru.iopump.jdbi.db.dao;
 import static java.lang.String.format;
 
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.annotation.Nullable;
 
 import ru.iopump.jdbi.db.exception.DbException;
 import ru.iopump.jdbi.db.exception.NoSubQueryResult;
 import ru.iopump.jdbi.db.entity.Entity;
+import com.google.common.collect.Iterables;
 import lombok.NonNull;
 import lombok.val;
 import org.apache.commons.lang3.StringUtils;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.sqlobject.SqlObject;
 import org.jdbi.v3.sqlobject.config.RegisterBeanMapper;
+import ru.iopump.jdbi.db.dialect.DialectConfig;
+import ru.iopump.jdbi.db.dialect.SqlDialect;
 
 /**
  * <br/>Доступ к CRUD операциям.
@@ -25,29 +40,100 @@ import org.jdbi.v3.sqlobject.config.RegisterBeanMapper;
  * <br/>При написании конкретных DAO, обязательно указывать в {@link RegisterBeanMapper} конкретный класс сущности!
  */
 @SuppressWarnings({"deprecation", "unused", "DeprecatedIsStillUsed"})
-public interface CrudDao<ENTITY extends Entity<ID>, ID> extends InternalCrudDao<ENTITY, ID> {
+public interface CrudDao<ENTITY extends Entity<ID>, ID> extends InternalCrudDao<ENTITY, ID>, SqlObject {
 
+    /**
+     * Размер пачки по умолчанию для пакетных операций.
+     */
+    int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * Размер выборки JDBC (fetch size) по умолчанию для потоковых запросов.
+     */
+    int DEFAULT_FETCH_SIZE = 1000;
+
+    /**
+     * Максимальное кол-во значений в одном списке 'in (..)' по умолчанию. Ограничение Oracle - 1000.
+     */
+    int DEFAULT_IN_SIZE = 1000;
+
+    /**
+     * Записи, у которых значение колонки равно value, или 'is null' для value == null.
+     * Строка "null" сравнивается как обычное значение, в отличие от {@link DaoCondition#equal(String, Object)}.
+     */
     default List<ENTITY> findListByColumnValue(@NonNull String column, @Nullable Object value) {
-        String operand = "=";
-        if (value == null) {
-            operand = "is";
-        }
-        return internalFind(getTableName(), column, value, operand, getIdColumnName());
+        return findListByColumnValue(new DaoConditionChain(value == null
+                ? DaoCondition.isNull(column)
+                : new DaoCondition(column, "=", value)));
     }
 
     default List<ENTITY> findListByColumnValue(@NonNull DaoConditionChain conditionChain) {
         try {
-            final String cString = conditionChain.asString();
+            final ConditionBindings bindings = new ConditionBindings();
+            final String cString = conditionChain.asString(bindings);
             if (StringUtils.isBlank(cString)) {
                 return internalFindAll(getTableName(), getIdColumnName(), OrderType.ASC, 100);
             } else {
-                return internalFindConditions(getTableName(), cString, getIdColumnName());
+                return internalFindConditions(getTableName(), cString, bindings.getValues(), getIdColumnName());
             }
         } catch (NoSubQueryResult expected) {
             return Collections.emptyList();
         }
     }
 
+    default Stream<ENTITY> streamByColumnValue(@NonNull DaoConditionChain conditionChain) {
+        return streamByColumnValue(conditionChain, DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Ленивая выборка по условиям, записи читаются из курсора порциями по fetchSize в порядке возрастания ID.
+     * Пустая цепочка условий - вся таблица.
+     * <br/>Stream держит открытыми соединение и курсор, его обязательно нужно закрыть.
+     * <br/>Только для DAO, привязанного к открытому Handle ({@code handle.attach(..)}, {@code jdbi.useExtension(..)}):
+     * у DAO из {@code jdbi.onDemand(..)} соединение закрывается сразу после возврата из метода,
+     * для него используй {@link #withStreamByColumnValue(DaoConditionChain, int, Function)}.
+     * <br/>PostgreSQL читает порциями только внутри транзакции (autocommit = false).
+     *
+     * @param conditionChain Условия выборки.
+     * @param fetchSize      Кол-во строк, получаемых драйвером за одно обращение к СУБД.
+     */
+    default Stream<ENTITY> streamByColumnValue(@NonNull DaoConditionChain conditionChain, int fetchSize) {
+        try {
+            final ConditionBindings bindings = new ConditionBindings();
+            final String cString = conditionChain.asString(bindings);
+            if (StringUtils.isBlank(cString)) {
+                return internalStreamAll(getTableName(), getIdColumnName(), OrderType.ASC, fetchSize).stream();
+            } else {
+                return internalStreamConditions(getTableName(),
+                        cString,
+                        bindings.getValues(),
+                        getIdColumnName(),
+                        OrderType.ASC,
+                        fetchSize
+                ).stream();
+            }
+        } catch (NoSubQueryResult expected) {
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * Обработать ленивую выборку по условиям внутри одного вызова DAO, Stream закрывается автоматически.
+     * Подходит в том числе для DAO из {@code jdbi.onDemand(..)}.
+     *
+     * @param conditionChain Условия выборки.
+     * @param fetchSize      Кол-во строк, получаемых драйвером за одно обращение к СУБД.
+     * @param callback       Обработчик записей. Stream нельзя использовать после возврата из обработчика.
+     * @return Результат обработчика.
+     */
+    default <R> R withStreamByColumnValue(@NonNull DaoConditionChain conditionChain,
+                                          int fetchSize,
+                                          @NonNull Function<Stream<ENTITY>, R> callback) {
+        try (Stream<ENTITY> stream = streamByColumnValue(conditionChain, fetchSize)) {
+            return callback.apply(stream);
+        }
+    }
+
     default Optional<ENTITY> findOneByColumnValue(@NonNull String column, @Nullable Object value) {
         return findListByColumnValue(column, value)
                 .stream()
@@ -68,8 +154,125 @@ public interface CrudDao<ENTITY extends Entity<ID>, ID> extends InternalCrudDao<
         return internalFindAll(getTableName(), getIdColumnName(), OrderType.ASC, limit);
     }
 
+    default List<ENTITY> pageAfter(@Nullable ID lastId, int size, @NonNull OrderType orderType) {
+        return pageAfter(new DaoConditionChain(), lastId, size, orderType);
+    }
+
+    /**
+     * Страница записей, следующих за lastId в порядке orderType (keyset / seek пагинация).
+     * Каждая страница - выборка по диапазону ID с limit, без OFFSET, стоимость не растет с номером страницы.
+     *
+     * @param conditionChain Условия выборки. Пустая цепочка - вся таблица.
+     * @param lastId         ID последней записи предыдущей страницы или null для первой страницы.
+     * @param size           Размер страницы.
+     * @param orderType      Порядок обхода по ID.
+     */
+    default List<ENTITY> pageAfter(@NonNull DaoConditionChain conditionChain,
+                                   @Nullable ID lastId,
+                                   int size,
+                                   @NonNull OrderType orderType) {
+        if (size <= 0) {
+            throw new IllegalArgumentException(format("Размер страницы должен быть больше 0, а не %d", size));
+        }
+        try {
+            final ConditionBindings bindings = new ConditionBindings();
+            final String cString = conditionChain.asString(bindings);
+            final String seek = lastId == null
+                    ? null
+                    : getIdColumnName() + (orderType == OrderType.ASC ? " > " : " < ") + bindings.bind(lastId);
+            final String where = CrudDaoUtils.and(seek, cString);
+            if (StringUtils.isBlank(where)) {
+                return internalFindAll(getTableName(), getIdColumnName(), orderType, size);
+            } else {
+                return internalFindConditionsLimit(getTableName(), where, bindings.getValues(), getIdColumnName(), orderType, size);
+            }
+        } catch (NoSubQueryResult expected) {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Обход всех записей по условиям постранично через {@link #pageAfter(DaoConditionChain, Object, int, OrderType)}.
+     * Страницы запрашиваются по мере обхода, в памяти держится только текущая страница.
+     *
+     * @param conditionChain Условия выборки. Пустая цепочка - вся таблица.
+     * @param pageSize       Размер страницы.
+     * @param orderType      Порядок обхода по ID.
+     */
+    default Iterator<ENTITY> iterateAll(@NonNull DaoConditionChain conditionChain,
+                                        int pageSize,
+                                        @NonNull OrderType orderType) {
+        return new KeysetIterator<>(this, conditionChain, pageSize, orderType);
+    }
+
     default Optional<ENTITY> findOne(@NonNull ID id) {
-        return findOneByColumnValue(getIdColumnName(), id);
+        return internalQueryPrecompiled(getTableName(),
+                getPrecompiledSql().getFindById(),
+                Collections.singletonMap("id", id))
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Выбрать только указанные колонки записей по условиям, без маппинга в сущность.
+     * Подходит для широких таблиц с CLOB / JSON колонками, когда нужны одна-две колонки.
+     *
+     * @param columns        Колонки.
+     * @param conditionChain Условия. Пустая цепочка - все записи таблицы.
+     * @return Строки вида [колонка в нижнем регистре : значение].
+     */
+    default List<Map<String, Object>> findColumns(@NonNull Set<String> columns,
+                                                  @NonNull DaoConditionChain conditionChain) {
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("Не указаны колонки для выборки");
+        }
+        try {
+            final String columnList = String.join(", ", columns);
+            final ConditionBindings bindings = new ConditionBindings();
+            final String cString = conditionChain.asString(bindings);
+            if (StringUtils.isBlank(cString)) {
+                return internalFindColumnsAll(getTableName(), columnList);
+            } else {
+                return internalFindColumnsConditions(getTableName(), columnList, cString, bindings.getValues());
+            }
+        } catch (NoSubQueryResult expected) {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Выбрать значения одной колонки записей по условиям, см. {@link #findColumns(Set, DaoConditionChain)}.
+     *
+     * @param column         Колонка.
+     * @param conditionChain Условия. Пустая цепочка - все записи таблицы.
+     * @return Значения колонки.
+     */
+    default List<Object> findColumn(@NonNull String column, @NonNull DaoConditionChain conditionChain) {
+        return findColumns(Collections.singleton(column), conditionChain).stream()
+                .map(row -> row.values().iterator().next())
+                .collect(Collectors.toList());
+    }
+
+    default Map<ID, ENTITY> findAllById(@NonNull Collection<ID> ids) {
+        return findAllById(ids, DEFAULT_IN_SIZE);
+    }
+
+    /**
+     * Найти записи по списку id запросами 'select .. where id in (..)' вместо запроса на каждый id.
+     *
+     * @param ids       Id записей.
+     * @param chunkSize Максимальное кол-во id в одном запросе.
+     * @return Найденные записи [id : запись] в порядке ids. Ненайденные id отсутствуют.
+     */
+    default Map<ID, ENTITY> findAllById(@NonNull Collection<ID> ids, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException(format("Размер пачки должен быть больше 0, а не %d", chunkSize));
+        }
+        final List<ENTITY> found = new ArrayList<>();
+        for (List<ID> chunk : Iterables.partition(new LinkedHashSet<>(ids), chunkSize)) {
+            found.addAll(internalFindByIds(getTableName(), getIdColumnName(), chunk));
+        }
+        return CrudDaoUtils.orderById(ids, found);
     }
 
     default int updateByColumnValue(@NonNull String column,
@@ -77,11 +280,12 @@ public interface CrudDao<ENTITY extends Entity<ID>, ID> extends InternalCrudDao<
                                     @NonNull DaoConditionChain conditionChain) {
 
         try {
-            final String cString = conditionChain.asString();
+            final ConditionBindings bindings = new ConditionBindings();
+            final String cString = conditionChain.asString(bindings);
             if (StringUtils.isBlank(cString)) {
                 return internalUpdateAll(getTableName(), column, value);
             } else {
-                return internalUpdateConditions(getTableName(), column, value, cString);
+                return internalUpdateConditions(getTableName(), column, value, cString, bindings.getValues());
             }
         } catch (NoSubQueryResult expected) {
             return 0;
@@ -94,6 +298,34 @@ public interface CrudDao<ENTITY extends Entity<ID>, ID> extends InternalCrudDao<
         internalInsert(getTableName(), all.getKeysAsList(), all.getValuesAsList());
     }
 
+    default void insertAll(@NonNull Collection<ENTITY> entities) {
+        insertAll(entities, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Пакетная вставка.
+     * Сущности группируются по набору колонок, для каждой группы шаблон запроса формируется один раз,
+     * а строки отправляются через JDBC batch пачками по batchSize.
+     *
+     * @param entities  Записи для вставки.
+     * @param batchSize Максимальное кол-во строк в одном JDBC batch.
+     */
+    default void insertAll(@NonNull Collection<ENTITY> entities, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException(format("Размер пачки должен быть больше 0, а не %d", batchSize));
+        }
+        if (entities.isEmpty()) {
+            return;
+        }
+        final SqlDialect dialect = getDialect();
+        final String tableName = getHandle().getConfig(DialectConfig.class).tableName(getTableName(), dialect);
+        CrudDaoUtils.groupByColumns(entities).forEach((columns, rows) -> internalBatch(getTableName(),
+                dialect.insert(tableName, columns, CrudDaoUtils.placeholders(columns.size())),
+                rows,
+                batchSize)
+        );
+    }
+
     default ID update(@NonNull ENTITY entity) {
         final ID id = entity.id();
         if (id == null) {
@@ -101,26 +333,258 @@ public interface CrudDao<ENTITY extends Entity<ID>, ID> extends InternalCrudDao<
         }
         final Optional<ENTITY> existsEntity = findOne(id);
         if (!existsEntity.isPresent()) {
-            throw new DbException(format("[%s] Запись с id = '%s' не существует. Создайте ее или воспользуйтесь методом updateOrInsert",
+            throw new DbException(format("[%s] Запись с id = '%s' не существует. Создайте ее или воспользуйтесь методом upsert",
                     entity.getClass().getSimpleName(),
                     id)
             );
         }
         final Entity.KeyValueMap toUpdate = entity.allFields().minus(existsEntity.get().allFields(), true);
-        toUpdate.getSourceMap().forEach((k, v) -> internalUpdate(getTableName(), k, v, getIdColumnName(), id));
+        if (!toUpdate.getSourceMap().isEmpty()) {
+            internalUpdateColumns(getTableName(),
+                    CrudDaoUtils.assignments(toUpdate.getKeysAsList()),
+                    CrudDaoUtils.parameters(toUpdate.getKeysAsList(), toUpdate.getSourceMap()),
+                    getIdColumnName(),
+                    id);
+        }
         return id;
     }
 
+    /**
+     * Обновление без предварительного чтения записи.
+     * Все колонки сущности, кроме колонки ID (в том числе со значением null), записываются одним запросом.
+     *
+     * @param entity Запись с заполненным id.
+     * @return Id обновленной записи.
+     * @throws DbException Не указан id или записи с таким id не существует.
+     */
+    default ID blindUpdate(@NonNull ENTITY entity) {
+        final ID id = entity.id();
+        if (id == null) {
+            throw new DbException(format("[%s] Не указан id записи для обновления", entity.getClass().getSimpleName()));
+        }
+        final Map<String, Object> values = new HashMap<>(entity.allFields().getSourceMap());
+        values.keySet().removeIf(column -> column.equalsIgnoreCase(getIdColumnName()));
+        if (values.isEmpty()) {
+            return id;
+        }
+        final List<String> columns = new ArrayList<>(values.keySet());
+        final int updated = internalUpdateColumns(getTableName(),
+                CrudDaoUtils.assignments(columns),
+                CrudDaoUtils.parameters(columns, values),
+                getIdColumnName(),
+                id);
+        if (updated == 0) {
+            throw new DbException(format("[%s] Запись с id = '%s' не существует. Создайте ее или воспользуйтесь методом upsert",
+                    entity.getClass().getSimpleName(),
+                    id)
+            );
+        }
+        return id;
+    }
+
+    /**
+     * Вставить запись или обновить существующую с тем же id одним атомарным запросом
+     * (MERGE / ON CONFLICT / ON DUPLICATE KEY UPDATE в зависимости от {@link SqlDialect}).
+     *
+     * @param entity Запись с заполненным id.
+     * @return Id записи.
+     * @throws DbException Не указан id.
+     */
+    default ID upsert(@NonNull ENTITY entity) {
+        upsertAll(Collections.singletonList(entity));
+        return entity.id();
+    }
+
+    default void upsertAll(@NonNull Collection<ENTITY> entities) {
+        upsertAll(entities, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Пакетная вставка или обновление по id.
+     * Сущности группируются по набору колонок как в {@link #insertAll(Collection, int)},
+     * каждая пачка выполняется одним JDBC batch из атомарных upsert запросов.
+     *
+     * @param entities  Записи с заполненным id.
+     * @param batchSize Максимальное кол-во строк в одном JDBC batch.
+     * @throws DbException Не указан id хотя бы у одной записи.
+     */
+    default void upsertAll(@NonNull Collection<ENTITY> entities, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException(format("Размер пачки должен быть больше 0, а не %d", batchSize));
+        }
+        for (ENTITY entity : entities) {
+            if (entity.id() == null) {
+                throw new DbException(format("[%s] Не указан id записи для upsert", entity.getClass().getSimpleName()));
+            }
+        }
+        if (entities.isEmpty()) {
+            return;
+        }
+        final SqlDialect dialect = getDialect();
+        final String tableName = getHandle().getConfig(DialectConfig.class).tableName(getTableName(), dialect);
+        CrudDaoUtils.groupByColumns(entities).forEach((columns, rows) -> internalBatch(getTableName(),
+                dialect.upsert(tableName, getIdColumnName(), columns, CrudDaoUtils.placeholders(columns.size())),
+                rows,
+                batchSize)
+        );
+    }
+
     default int delete(@NonNull ID id) {
-        return internalDelete(getTableName(), getIdColumnName(), id);
+        return internalUpdatePrecompiled(getTableName(),
+                getPrecompiledSql().getDeleteById(),
+                Collections.singletonMap("id", id));
+    }
+
+    default int deleteAll(@NonNull Collection<ID> ids) {
+        return deleteAll(ids, DEFAULT_IN_SIZE);
+    }
+
+    /**
+     * Удалить записи по списку id запросами 'delete .. where id in (..)'.
+     *
+     * @param ids       Id записей.
+     * @param chunkSize Максимальное кол-во id (и удаляемых строк) в одном запросе.
+     * @return Кол-во удаленных записей.
+     */
+    default int deleteAll(@NonNull Collection<ID> ids, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException(format("Размер пачки должен быть больше 0, а не %d", chunkSize));
+        }
+        int deleted = 0;
+        for (List<ID> chunk : Iterables.partition(ids, chunkSize)) {
+            deleted += internalDeleteIds(getTableName(), getIdColumnName(), chunk);
+        }
+        return deleted;
+    }
+
+    /**
+     * Удалить записи по условиям одним запросом. Пустая цепочка - удалить все записи таблицы.
+     *
+     * @param conditionChain Условия.
+     * @return Кол-во удаленных записей.
+     */
+    default int deleteByColumnValue(@NonNull DaoConditionChain conditionChain) {
+        try {
+            final ConditionBindings bindings = new ConditionBindings();
+            final String cString = conditionChain.asString(bindings);
+            if (StringUtils.isBlank(cString)) {
+                return internalUpdatePrecompiled(getTableName(), getPrecompiledSql().getDeleteAll(), Collections.emptyMap());
+            } else {
+                return internalDeleteConditions(getTableName(), cString, bindings.getValues());
+            }
+        } catch (NoSubQueryResult expected) {
+            return 0;
+        }
+    }
+
+    /**
+     * Удалить записи по условиям порциями не более maxRows строк за запрос,
+     * чтобы не блокировать большой диапазон записей одним долгим запросом.
+     * Каждая порция - выборка id по условиям и удаление по этим id.
+     *
+     * @param conditionChain Условия. Пустая цепочка - все записи таблицы.
+     * @param maxRows        Максимальное кол-во строк, удаляемых одним запросом.
+     * @return Кол-во удаленных записей.
+     */
+    default int deleteByColumnValue(@NonNull DaoConditionChain conditionChain, int maxRows) {
+        if (maxRows <= 0) {
+            throw new IllegalArgumentException(format("Размер пачки должен быть больше 0, а не %d", maxRows));
+        }
+        try {
+            final ConditionBindings bindings = new ConditionBindings();
+            final String cString = conditionChain.asString(bindings);
+            int deleted = 0;
+            List<ID> ids;
+            do {
+                ids = StringUtils.isBlank(cString)
+                        ? internalFindIds(getTableName(), getIdColumnName(), maxRows)
+                        : internalFindIdsConditions(getTableName(), getIdColumnName(), cString, bindings.getValues(), maxRows);
+                if (!ids.isEmpty()) {
+                    deleted += internalDeleteIds(getTableName(), getIdColumnName(), ids);
+                }
+            } while (ids.size() == maxRows);
+            return deleted;
+        } catch (NoSubQueryResult expected) {
+            return 0;
+        }
     }
 
     default void truncate() {
-        internalTruncate(getTableName());
+        internalExecute(getTableName(), getPrecompiledSql().getTruncate());
     }
 
     default long count() {
-        return internalCount(getTableName());
+        return internalCountPrecompiled(getTableName(), getPrecompiledSql().getCount());
+    }
+
+    /**
+     * Кол-во записей по условиям, считается на стороне СУБД.
+     *
+     * @param conditionChain Условия. Пустая цепочка - вся таблица.
+     */
+    default long count(@NonNull DaoConditionChain conditionChain) {
+        try {
+            final ConditionBindings bindings = new ConditionBindings();
+            final String cString = conditionChain.asString(bindings);
+            if (StringUtils.isBlank(cString)) {
+                return count();
+            } else {
+                return internalCountConditions(getTableName(), cString, bindings.getValues());
+            }
+        } catch (NoSubQueryResult expected) {
+            return 0;
+        }
+    }
+
+    /**
+     * Проверить наличие хотя бы одной записи по условиям через 'select 1 ..' с ограничением в одну строку.
+     *
+     * @param conditionChain Условия. Пустая цепочка - вся таблица.
+     */
+    default boolean exists(@NonNull DaoConditionChain conditionChain) {
+        try {
+            final ConditionBindings bindings = new ConditionBindings();
+            final String cString = conditionChain.asString(bindings);
+            if (StringUtils.isBlank(cString)) {
+                return !internalExistsPrecompiled(getTableName(), getPrecompiledSql().getExistsAll()).isEmpty();
+            } else {
+                return !internalExistsConditions(getTableName(), cString, bindings.getValues(), 1).isEmpty();
+            }
+        } catch (NoSubQueryResult expected) {
+            return false;
+        }
+    }
+
+    /**
+     * Диалект СУБД этого DAO, см. {@link DialectConfig}.
+     */
+    @NonNull
+    default SqlDialect getDialect() {
+        final Handle handle = getHandle();
+        return handle.getConfig(DialectConfig.class).getDialect(handle.getConnection());
+    }
+
+    /**
+     * Имя таблицы для sql: экранированное, если включено {@link DialectConfig#isQuoteIdentifiers()}.
+     */
+    @NonNull
+    default String getSqlTableName() {
+        final Handle handle = getHandle();
+        final DialectConfig config = handle.getConfig(DialectConfig.class);
+        return config.tableName(getTableName(), config.getDialect(handle.getConnection()));
+    }
+
+    /**
+     * Неизменяемые запросы этого DAO, собираются один раз на (диалект, таблица, колонка id), см. {@link PrecompiledSql}.
+     * <br/>Не запоминаются в DAO: при каждом вызове определяется диалект текущего Handle
+     * и выполняется поиск в кэше {@link PrecompiledSql#of} без блокировки.
+     */
+    @NonNull
+    default PrecompiledSql getPrecompiledSql() {
+        final Handle handle = getHandle();
+        final DialectConfig config = handle.getConfig(DialectConfig.class);
+        final SqlDialect dialect = config.getDialect(handle.getConnection());
+        return PrecompiledSql.of(dialect, config.tableName(getTableName(), dialect), getIdColumnName());
     }
 
     /**
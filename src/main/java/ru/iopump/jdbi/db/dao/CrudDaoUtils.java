@@ -0,0 +1,106 @@
+package ru.iopump.jdbi.db.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeSet;
+import javax.annotation.Nullable;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import org.apache.commons.lang3.StringUtils;
+import ru.iopump.jdbi.db.entity.Entity;
+
+/**
+ * Вспомогательные методы для default-методов {@link CrudDao}.
+ * Интерфейс не может иметь private методов (Java 8), поэтому общая логика вынесена сюда.
+ */
+@UtilityClass
+class CrudDaoUtils {
+    private static final String PARAMETER_PREFIX = "p";
+
+    /**
+     * Сгруппировать сущности по набору колонок.
+     * Ключ - отсортированный список колонок, значение - строки в виде [имя параметра : значение],
+     * где имя параметра соответствует {@link #placeholders(int)}.
+     */
+    Map<List<String>, List<Map<String, Object>>> groupByColumns(@NonNull Collection<? extends Entity<?>> entities) {
+        final Map<List<String>, List<Map<String, Object>>> groups = new LinkedHashMap<>();
+        for (Entity<?> entity : entities) {
+            final Map<String, Object> source = entity.allFields().getSourceMap();
+            final List<String> columns = new ArrayList<>(new TreeSet<>(source.keySet()));
+            groups.computeIfAbsent(columns, k -> new ArrayList<>()).add(parameters(columns, source));
+        }
+        return groups;
+    }
+
+    /**
+     * Значения колонок в виде [имя параметра : значение] в порядке columns.
+     */
+    Map<String, Object> parameters(@NonNull List<String> columns, @NonNull Map<String, Object> source) {
+        final Map<String, Object> result = new HashMap<>(columns.size() * 2);
+        for (int i = 0; i < columns.size(); i++) {
+            result.put(PARAMETER_PREFIX + i, source.get(columns.get(i)));
+        }
+        return result;
+    }
+
+    /**
+     * Список присваиваний вида 'a = :p0, b = :p1, ...' для update.
+     */
+    String assignments(@NonNull List<String> columns) {
+        final StringJoiner joiner = new StringJoiner(", ");
+        for (int i = 0; i < columns.size(); i++) {
+            joiner.add(columns.get(i) + " = :" + PARAMETER_PREFIX + i);
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * Объединить условия через 'and', пустые условия пропускаются.
+     * Второе условие берется в скобки, т.к. может содержать 'or'.
+     */
+    String and(@Nullable String first, @Nullable String second) {
+        if (StringUtils.isBlank(first)) {
+            return StringUtils.defaultString(second);
+        }
+        if (StringUtils.isBlank(second)) {
+            return first;
+        }
+        return first + " and (" + second + ")";
+    }
+
+    /**
+     * Список именованных параметров вида ':p0, :p1, ...'.
+     */
+    String placeholders(int size) {
+        final StringJoiner joiner = new StringJoiner(", ");
+        for (int i = 0; i < size; i++) {
+            joiner.add(":" + PARAMETER_PREFIX + i);
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * Записи [id : запись] в порядке ids. Id без записи пропускаются.
+     */
+    <ID, ENTITY extends Entity<ID>> Map<ID, ENTITY> orderById(@NonNull Collection<ID> ids,
+                                                               @NonNull Collection<ENTITY> entities) {
+        final Map<ID, ENTITY> byId = new HashMap<>(entities.size() * 2);
+        for (ENTITY entity : entities) {
+            byId.put(entity.id(), entity);
+        }
+        final Map<ID, ENTITY> result = new LinkedHashMap<>(byId.size() * 2);
+        for (ID id : ids) {
+            final ENTITY entity = byId.get(id);
+            if (entity != null) {
+                result.put(id, entity);
+            }
+        }
+        return result;
+    }
+}
@@ -21,4 +21,26 @@ public @interface Dao {
     String tableName() default "";
 
     boolean include() default true;
+
+    /**
+     * Размер кэша записей по id, 0 - кэш выключен. См. {@link ru.iopump.jdbi.db.cache.DaoCache}.
+     */
+    long cacheSize() default 0;
+
+    /**
+     * Время жизни записи в кэше в секундах.
+     */
+    long cacheTtlSec() default 60;
+
+    /**
+     * Максимальное суммарное кол-во строк в кэше результатов запросов по цепочке условий, 0 - кэш выключен.
+     * См. {@link ru.iopump.jdbi.db.cache.CacheSettings#getQueryCacheMaxRows()}.
+     */
+    long queryCacheMaxRows() default 0;
+
+    /**
+     * Время жизни результата в общем кэше запросов в секундах, 0 - только внутри
+     * {@link ru.iopump.jdbi.db.cache.QueryCacheScope}.
+     */
+    long queryCacheTtlSec() default 10;
 }
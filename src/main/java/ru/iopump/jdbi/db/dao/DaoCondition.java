@@ -1,11 +1,21 @@
 package ru.iopump.jdbi.db.dao;
 
+import static java.lang.String.format;
+
+import java.math.BigDecimal;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.StringJoiner;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
 import javax.annotation.Nullable;
 
 import lombok.NonNull;
 import lombok.Value;
+import org.apache.commons.lang3.StringUtils;
+import ru.iopump.jdbi.db.entity.Entity;
+import ru.iopump.jdbi.db.exception.PredicateNotApplicable;
 
 @SuppressWarnings({"WeakerAccess", "unused"})
 @Value
@@ -26,11 +36,178 @@ public class DaoCondition implements Condition {
                 .toString();
     }
 
+    /**
+     * Значение передается через параметр JDBC, в строку sql встраивается только null (для 'is null').
+     */
+    @Override
+    public String asString(@NonNull ConditionBindings bindings) {
+        return new StringJoiner(" ")
+                .add(columnName)
+                .add(operand)
+                .add(value == null ? "null" : bindings.bind(value))
+                .toString();
+    }
+
+    /**
+     * Предикат строится только для проверок, результат которых в Java совпадает с sql:
+     * 'is null', 'is not null' и '=', '<>', '!=', '>', '<', '>=', '<=' с числом
+     * или значением {@link Comparable} не строкового типа (даты, время).
+     * Для строк и 'like' возвращается null: результат в СУБД зависит от сопоставления (регистр) и дополнения CHAR.
+     * Если у записи нет колонки или тип значения колонки другой, предикат бросает {@link PredicateNotApplicable}.
+     * Как и в sql, сравнение с null всегда ложно.
+     */
+    @Nullable
+    @Override
+    public Predicate<Entity<?>> asPredicate() {
+        final String normalizedOperand = StringUtils.lowerCase(StringUtils.normalizeSpace(operand), Locale.ROOT);
+        if ("is".equals(normalizedOperand)) {
+            return value == null ? e -> actual(e) == null : null;
+        }
+        if ("is not".equals(normalizedOperand)) {
+            return value == null ? e -> actual(e) != null : null;
+        }
+        if (!isExactlyComparable(value)) {
+            return null;
+        }
+        switch (normalizedOperand) {
+            case "=":
+                return e -> test(actual(e), c -> c == 0);
+            case "<>":
+            case "!=":
+                return e -> test(actual(e), c -> c != 0);
+            case ">":
+                return e -> test(actual(e), c -> c > 0);
+            case "<":
+                return e -> test(actual(e), c -> c < 0);
+            case ">=":
+                return e -> test(actual(e), c -> c >= 0);
+            case "<=":
+                return e -> test(actual(e), c -> c <= 0);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Для строковых '=', '<>', '!=' и 'like' дополнительно к {@link #asPredicate()} строится фильтр кандидатов,
+     * не зависящий от сопоставления СУБД: '=' и 'like' сравнивают без учета регистра и диакритики,
+     * '=' и '<>' - без завершающих пробелов (дополнение CHAR). Для '<>' кандидат - строка, отличная с учетом регистра.
+     * Фильтр пропускает все подходящие записи, если сопоставление СУБД не мягче, чем без учета регистра и диакритики
+     * с PAD SPACE (так у сопоставлений по умолчанию MySQL, PostgreSQL, H2, Oracle, MS SQL).
+     * В 'like' символ '\' экранирует следующий символ.
+     */
+    @Nullable
+    @Override
+    public Predicate<Entity<?>> asCandidatePredicate() {
+        final Predicate<Entity<?>> exact = asPredicate();
+        if (exact != null || !(value instanceof CharSequence)) {
+            return exact;
+        }
+        final String expected = value.toString();
+        switch (StringUtils.lowerCase(StringUtils.normalizeSpace(operand), Locale.ROOT)) {
+            case "=":
+                final String key = fold(StringUtils.stripEnd(expected, " "));
+                return e -> {
+                    final String actual = actualString(e);
+                    return actual != null && fold(StringUtils.stripEnd(actual, " ")).equals(key);
+                };
+            case "<>":
+            case "!=":
+                final String trimmed = StringUtils.stripEnd(expected, " ");
+                return e -> {
+                    final String actual = actualString(e);
+                    return actual != null && !StringUtils.stripEnd(actual, " ").equals(trimmed);
+                };
+            case "like":
+                final Pattern pattern = likePattern(fold(expected));
+                return e -> {
+                    final String actual = actualString(e);
+                    return actual != null && pattern.matcher(fold(actual)).matches();
+                };
+            default:
+                return null;
+        }
+    }
+
     @Override
     public String toString() {
         return asString();
     }
 
+    @Nullable
+    private Object actual(@NonNull Entity<?> entity) {
+        if (!entity.hasField(columnName)) {
+            throw new PredicateNotApplicable(format("В записи %s нет колонки %s",
+                    entity.getClass().getSimpleName(), columnName));
+        }
+        return entity.getFieldValue(columnName);
+    }
+
+    @Nullable
+    private String actualString(@NonNull Entity<?> entity) {
+        final Object actual = actual(entity);
+        if (actual == null || actual instanceof CharSequence) {
+            return actual == null ? null : actual.toString();
+        }
+        throw new PredicateNotApplicable(format("Значение колонки %s типа %s сравнивается со строкой",
+                columnName, actual.getClass().getSimpleName()));
+    }
+
+    /**
+     * Строка без учета регистра и диакритики.
+     */
+    private static String fold(String value) {
+        return StringUtils.stripAccents(value).toLowerCase(Locale.ROOT);
+    }
+
+    private static Pattern likePattern(String like) {
+        final StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < like.length(); i++) {
+            final char c = like.charAt(i);
+            if (c == '\\' && i + 1 < like.length()) {
+                regex.append(Pattern.quote(String.valueOf(like.charAt(++i))));
+            } else if (c == '%') {
+                regex.append(".*");
+            } else if (c == '_') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    private boolean test(@Nullable Object actual, @NonNull IntPredicate comparison) {
+        if (actual == null || value == null) {
+            return false;
+        }
+        return comparison.test(compare(actual, value));
+    }
+
+    private static boolean isExactlyComparable(@Nullable Object value) {
+        return value instanceof Number
+                || value instanceof Comparable && !(value instanceof CharSequence)
+                && !(value instanceof Character) && !(value instanceof Enum);
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(@NonNull Object actual, @NonNull Object expected) {
+        if (actual instanceof Number && expected instanceof Number) {
+            try {
+                return new BigDecimal(actual.toString()).compareTo(new BigDecimal(expected.toString()));
+            } catch (NumberFormatException e) {
+                // NaN, Infinity
+                throw new PredicateNotApplicable(format("Значения колонки %s нельзя сравнить: %s, %s",
+                        columnName, actual, expected));
+            }
+        }
+        if (actual.getClass() == expected.getClass()) {
+            return ((Comparable<Object>) actual).compareTo(expected);
+        }
+        throw new PredicateNotApplicable(format("Тип значения колонки %s %s отличается от типа условия %s",
+                columnName, actual.getClass().getSimpleName(), expected.getClass().getSimpleName()));
+    }
+
     private String getValueAsString() {
         // TODO:: add converters
         if (value instanceof Number) {
@@ -1,10 +1,16 @@
 package ru.iopump.jdbi.db.dao;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.StringJoiner;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
+import ru.iopump.jdbi.db.entity.Entity;
 import ru.iopump.jdbi.db.exception.NoSubQueryResult;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
@@ -48,16 +54,50 @@ public final class DaoConditionChain {
     }
 
     String asString() throws NoSubQueryResult {
+        return render(condition -> condition.asString());
+    }
+
+    /**
+     * Условия в виде части строки sql с именованными параметрами, значения параметров добавляются в bindings.
+     */
+    String asString(@NonNull ConditionBindings bindings) throws NoSubQueryResult {
+        return render(condition -> condition.asString(bindings));
+    }
+
+    /**
+     * Нормализованное представление цепочки для сравнения запросов: текст условий с именованными параметрами
+     * и значения параметров по порядку. Равные цепочки дают равные списки.
+     *
+     * @return Список [текст условий, значения] или null,
+     * если цепочку нельзя сравнивать (см. {@link Condition#isCacheable()}) или подзапрос пуст.
+     */
+    @Nullable
+    public List<Object> normalized() {
+        for (Item item : linkedList) {
+            if (!item.condition.isCacheable()) {
+                return null;
+            }
+        }
+        try {
+            final ConditionBindings bindings = new ConditionBindings();
+            final String conditions = asString(bindings);
+            return Arrays.asList(conditions, new ArrayList<>(bindings.getValues().values()));
+        } catch (NoSubQueryResult expected) {
+            return null;
+        }
+    }
+
+    private String render(Function<Condition, String> renderer) throws NoSubQueryResult {
         if (!linkedList.isEmpty()) {
             final StringBuilder sb = new StringBuilder();
             for (Item item : linkedList) {
                 if (sb.length() == 0) {
-                    final String str = item.condition.asString();
+                    final String str = renderer.apply(item.condition);
                     if (str != null) {
                         sb.append(str);
                     }
                 } else {
-                    final String str = item.asString();
+                    final String str = item.asString(renderer);
                     if (str != null) {
                         sb.append(" ").append(str);
                     }
@@ -69,11 +109,57 @@ public final class DaoConditionChain {
         }
     }
 
+    /**
+     * Цепочка условий в виде предиката для проверки уже загруженных записей.
+     * Как и в sql, 'and' имеет больший приоритет, чем 'or'. Пустая цепочка подходит для любой записи.
+     *
+     * @return Предикат или null, если хотя бы одно условие нельзя проверить без обращения к СУБД.
+     */
+    @Nullable
+    public Predicate<Entity<?>> asPredicate() {
+        return combine(Condition::asPredicate);
+    }
+
+    /**
+     * Цепочка в виде фильтра кандидатов, см. {@link Condition#asCandidatePredicate()}.
+     * Цепочка содержит только 'and' и 'or', поэтому из фильтров условий получается фильтр цепочки.
+     *
+     * @return Предикат или null, если хотя бы одно условие нельзя проверить без обращения к СУБД.
+     */
+    @Nullable
+    public Predicate<Entity<?>> asCandidatePredicate() {
+        return combine(Condition::asCandidatePredicate);
+    }
+
     @Override
     public String toString() {
         return Joiner.on(" ").join(linkedList);
     }
 
+    @Nullable
+    private Predicate<Entity<?>> combine(Function<Condition, Predicate<Entity<?>>> factory) {
+        Predicate<Entity<?>> result = null;
+        Predicate<Entity<?>> group = null;
+        for (Item item : linkedList) {
+            final Predicate<Entity<?>> predicate = factory.apply(item.condition);
+            if (predicate == null) {
+                return null;
+            }
+            if (group == null) {
+                group = predicate;
+            } else if ("or".equalsIgnoreCase(item.logicalOperator)) {
+                result = result == null ? group : result.or(group);
+                group = predicate;
+            } else {
+                group = group.and(predicate);
+            }
+        }
+        if (group == null) {
+            return entity -> true;
+        }
+        return result == null ? group : result.or(group);
+    }
+
     private static class Item {
         private final String logicalOperator;
         private final Condition condition;
@@ -87,8 +173,8 @@ public final class DaoConditionChain {
             this.condition = condition;
         }
 
-        String asString() throws NoSubQueryResult {
-            String res = condition.asString();
+        String asString(Function<Condition, String> renderer) throws NoSubQueryResult {
+            String res = renderer.apply(condition);
             if (res == null) {
                 if ("and".equalsIgnoreCase(logicalOperator)) {
                     throw new NoSubQueryResult();
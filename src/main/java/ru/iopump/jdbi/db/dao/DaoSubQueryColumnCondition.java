@@ -9,6 +9,10 @@ import lombok.NonNull;
 import lombok.Value;
 import org.apache.commons.lang3.StringUtils;
 
+/**
+ * Условие с подзапросом, результат которого вычисляется в Java и встраивается в sql списком значений.
+ * Для больших выборок используй {@link DaoSubQueryCondition}, который выполняет подзапрос на стороне СУБД.
+ */
 @Value
 public class DaoSubQueryColumnCondition<ENTITY extends Entity> implements Condition {
     @NonNull
@@ -29,6 +33,14 @@ public class DaoSubQueryColumnCondition<ENTITY extends Entity> implements Condit
         }
     }
 
+    /**
+     * Подзапрос выполняется при каждом формировании sql.
+     */
+    @Override
+    public boolean isCacheable() {
+        return false;
+    }
+
     private String calculateSubQuery() {
         return crudDaoCallback.get().stream()
                 .map(record -> record.getFieldValueAsString(subQueryColumnName))
@@ -0,0 +1,125 @@
+package ru.iopump.jdbi.db.dao;
+
+import javax.annotation.Nullable;
+
+import lombok.NonNull;
+import lombok.Value;
+import org.apache.commons.lang3.StringUtils;
+import ru.iopump.jdbi.db.exception.NoSubQueryResult;
+
+/**
+ * Условие с подзапросом к другой таблице, которое целиком выполняется на стороне СУБД.
+ * <br/>В отличие от {@link DaoSubQueryColumnCondition} записи другой таблицы не загружаются в память,
+ * а условия подзапроса передаются через параметры JDBC вместе с условиями основного запроса.
+ * <br/>Создавать через {@link #in(String, CrudDao, String, DaoConditionChain)}
+ * или {@link #exists(CrudDao, String, CrudDao, String, DaoConditionChain)}.
+ * <br/>Имена таблиц берутся из DAO через {@link CrudDao#getSqlTableName()}, т.е. экранируются так же,
+ * как в запросах самих DAO.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+@Value
+public class DaoSubQueryCondition implements Condition {
+    private static final String ALIAS = "sq";
+
+    @NonNull
+    private final Type type;
+    @NonNull
+    private final String targetColumnName;
+    @NonNull
+    private final String subQueryTableName;
+    @NonNull
+    private final String subQueryColumnName;
+    @NonNull
+    private final DaoConditionChain subQueryConditions;
+
+    /**
+     * Условие вида 'target in (select sub_col from other where ...)'.
+     *
+     * @param targetColumnName   Колонка основной таблицы.
+     * @param subQueryDao        DAO таблицы подзапроса.
+     * @param subQueryColumnName Колонка таблицы подзапроса.
+     * @param subQueryConditions Условия подзапроса.
+     */
+    public static Condition in(@NonNull String targetColumnName,
+                               @NonNull CrudDao<?, ?> subQueryDao,
+                               @NonNull String subQueryColumnName,
+                               @NonNull DaoConditionChain subQueryConditions) {
+        return new DaoSubQueryCondition(Type.IN,
+                targetColumnName,
+                subQueryDao.getSqlTableName(),
+                subQueryColumnName,
+                subQueryConditions);
+    }
+
+    /**
+     * Полусоединение вида 'exists (select 1 from other sq where sq.sub_col = target.col and (...))'.
+     *
+     * @param targetDao          DAO основной таблицы, нужен для связи подзапроса с основным запросом.
+     * @param targetColumnName   Колонка основной таблицы.
+     * @param subQueryDao        DAO таблицы подзапроса.
+     * @param subQueryColumnName Колонка таблицы подзапроса.
+     * @param subQueryConditions Условия подзапроса.
+     */
+    public static Condition exists(@NonNull CrudDao<?, ?> targetDao,
+                                   @NonNull String targetColumnName,
+                                   @NonNull CrudDao<?, ?> subQueryDao,
+                                   @NonNull String subQueryColumnName,
+                                   @NonNull DaoConditionChain subQueryConditions) {
+        return new DaoSubQueryCondition(Type.EXISTS,
+                targetDao.getSqlTableName() + "." + targetColumnName,
+                subQueryDao.getSqlTableName(),
+                subQueryColumnName,
+                subQueryConditions);
+    }
+
+    @Override
+    public String asString() {
+        try {
+            return render(subQueryConditions.asString());
+        } catch (NoSubQueryResult expected) {
+            return null;
+        }
+    }
+
+    @Override
+    public String asString(@NonNull ConditionBindings bindings) {
+        final int mark = bindings.mark();
+        try {
+            return render(subQueryConditions.asString(bindings));
+        } catch (NoSubQueryResult expected) {
+            bindings.reset(mark);
+            return null;
+        }
+    }
+
+    /**
+     * Результат зависит от другой таблицы, а запись в нее не сбрасывает кэш запросов этого DAO.
+     */
+    @Override
+    public boolean isCacheable() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return type == Type.IN
+                ? targetColumnName + " in (" + subQueryColumnName + " from " + subQueryTableName + " where " + subQueryConditions + ")"
+                : "exists (" + subQueryColumnName + " from " + subQueryTableName + " = " + targetColumnName + " where " + subQueryConditions + ")";
+    }
+
+    private String render(@Nullable String where) {
+        final boolean hasWhere = !StringUtils.isBlank(where);
+        if (type == Type.IN) {
+            return targetColumnName + " in (select " + subQueryColumnName + " from " + subQueryTableName
+                    + (hasWhere ? " where " + where : "") + ")";
+        } else {
+            return "exists (select 1 from " + subQueryTableName + " " + ALIAS
+                    + " where " + ALIAS + "." + subQueryColumnName + " = " + targetColumnName
+                    + (hasWhere ? " and (" + where + ")" : "") + ")";
+        }
+    }
+
+    public enum Type {
+        IN, EXISTS
+    }
+}
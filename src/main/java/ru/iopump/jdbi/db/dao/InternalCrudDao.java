@@ -1,18 +1,29 @@
 package ru.iopump.jdbi.db.dao;
 
 import java.lang.reflect.Proxy;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import javax.annotation.Nullable;
 
+import ru.iopump.jdbi.db.dialect.DefineLimit;
+import ru.iopump.jdbi.db.dialect.DefineTable;
 import ru.iopump.jdbi.db.entity.Entity;
 import lombok.NonNull;
+import org.jdbi.v3.core.mapper.MapMapper;
+import org.jdbi.v3.core.result.ResultIterable;
 import org.jdbi.v3.sqlobject.config.RegisterBeanMapper;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindList;
+import org.jdbi.v3.sqlobject.customizer.BindMap;
 import org.jdbi.v3.sqlobject.customizer.Define;
 import org.jdbi.v3.sqlobject.customizer.DefineList;
+import org.jdbi.v3.sqlobject.customizer.FetchSize;
+import org.jdbi.v3.sqlobject.statement.BatchChunkSize;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import org.jdbi.v3.sqlobject.statement.UseRowMapper;
 
 /**
  * <br/>Доступ к CRUD операциям.
@@ -29,83 +40,231 @@ interface InternalCrudDao<ENTITY extends Entity<ID>, ID> {
     /**
      * Inner implementation. Not for Override!!!
      */
-    @SqlQuery("select count(*) from <tableName>")
-    long internalCount(@Define("tableName") @NonNull String tableName);
+    @SqlQuery("select count(*) from <tableName> where <conditions>")
+    long internalCountConditions(@DefineTable @NonNull String tableName,
+                                 @Define("conditions") @NonNull String conditions,
+                                 @BindMap @NonNull Map<String, Object> bindings);
 
     /**
      * Inner implementation. Not for Override!!!
      */
-    @SqlQuery("select * from <tableName> order by <idColumnName> <orderType> limit <limit>")
-    List<ENTITY> internalFindAll(@Define("tableName") @NonNull String tableName,
+    @SqlQuery("select <top> 1 from <tableName> where <conditions> <limit>")
+    List<Integer> internalExistsConditions(@DefineTable @NonNull String tableName,
+                                           @Define("conditions") @NonNull String conditions,
+                                           @BindMap @NonNull Map<String, Object> bindings,
+                                           @DefineLimit int limit);
+
+    /**
+     * Inner implementation. Not for Override!!!
+     */
+    @SqlQuery("select <top> * from <tableName> order by <idColumnName> <orderType> <limit>")
+    List<ENTITY> internalFindAll(@DefineTable @NonNull String tableName,
                                  @Define("idColumnName") @NonNull String idColumnName,
                                  @Define("orderType") @NonNull OrderType orderType,
-                                 @Define("limit") int limit
+                                 @DefineLimit int limit
     );
 
     /**
      * Inner implementation. Not for Override!!!
      */
     @SqlQuery("select * from <tableName> where <conditions> order by <idColumnName> desc")
-    List<ENTITY> internalFindConditions(@Define("tableName") @NonNull String tableName,
+    List<ENTITY> internalFindConditions(@DefineTable @NonNull String tableName,
                                         @Define("conditions") @NonNull String conditions,
+                                        @BindMap @NonNull Map<String, Object> bindings,
                                         @Define("idColumnName") @NonNull String idColumnName);
 
+    /**
+     * Inner implementation. Not for Override!!!
+     */
+    @SqlQuery("select <top> * from <tableName> where <conditions> order by <idColumnName> <orderType> <limit>")
+    List<ENTITY> internalFindConditionsLimit(@DefineTable @NonNull String tableName,
+                                             @Define("conditions") @NonNull String conditions,
+                                             @BindMap @NonNull Map<String, Object> bindings,
+                                             @Define("idColumnName") @NonNull String idColumnName,
+                                             @Define("orderType") @NonNull OrderType orderType,
+                                             @DefineLimit int limit);
+
+    /**
+     * Inner implementation. Not for Override!!!
+     */
+    @SqlQuery("select * from <tableName> order by <idColumnName> <orderType>")
+    ResultIterable<ENTITY> internalStreamAll(@DefineTable @NonNull String tableName,
+                                             @Define("idColumnName") @NonNull String idColumnName,
+                                             @Define("orderType") @NonNull OrderType orderType,
+                                             @FetchSize int fetchSize);
+
+    /**
+     * Inner implementation. Not for Override!!!
+     */
+    @SqlQuery("select * from <tableName> where <conditions> order by <idColumnName> <orderType>")
+    ResultIterable<ENTITY> internalStreamConditions(@DefineTable @NonNull String tableName,
+                                                    @Define("conditions") @NonNull String conditions,
+                                                    @BindMap @NonNull Map<String, Object> bindings,
+                                                    @Define("idColumnName") @NonNull String idColumnName,
+                                                    @Define("orderType") @NonNull OrderType orderType,
+                                                    @FetchSize int fetchSize);
+
     /**
      * Inner implementation. Not for Override!!!
      */
     @SqlUpdate("update <tableName> set <columnName> = :value where <conditions>")
-    int internalUpdateConditions(@Define("tableName") @NonNull String tableName,
+    int internalUpdateConditions(@DefineTable @NonNull String tableName,
                                  @Define("columnName") @NonNull String columnName,
                                  @Bind("value") @NonNull Object value,
-                                 @Define("conditions") @NonNull String conditions);
+                                 @Define("conditions") @NonNull String conditions,
+                                 @BindMap @NonNull Map<String, Object> bindings);
+
+    /**
+     * Inner implementation. Not for Override!!!
+     * <br/>tableName только для тегов метрик, логов и уведомлений об изменениях, в sql не подставляется.
+     */
+    @SqlUpdate("<statement>")
+    @PrecompiledStatement
+    int internalExecute(@Define("tableName") @NonNull String tableName,
+                        @Define("statement") @NonNull String statement);
+
+    /**
+     * Inner implementation. Not for Override!!!
+     */
+    @SqlUpdate("delete from <tableName> where <idColumnName> in (<ids>)")
+    int internalDeleteIds(@DefineTable @NonNull String tableName,
+                          @Define("idColumnName") @NonNull String idColumnName,
+                          @BindList("ids") @NonNull Collection<ID> ids);
+
+    /**
+     * Inner implementation. Not for Override!!!
+     */
+    @SqlUpdate("delete from <tableName> where <conditions>")
+    int internalDeleteConditions(@DefineTable @NonNull String tableName,
+                                 @Define("conditions") @NonNull String conditions,
+                                 @BindMap @NonNull Map<String, Object> bindings);
+
+    /**
+     * Inner implementation. Not for Override!!!
+     */
+    @SqlQuery("select <columnList> from <tableName>")
+    @UseRowMapper(MapMapper.class)
+    List<Map<String, Object>> internalFindColumnsAll(@DefineTable @NonNull String tableName,
+                                                     @Define("columnList") @NonNull String columnList);
+
+    /**
+     * Inner implementation. Not for Override!!!
+     */
+    @SqlQuery("select <columnList> from <tableName> where <conditions>")
+    @UseRowMapper(MapMapper.class)
+    List<Map<String, Object>> internalFindColumnsConditions(@DefineTable @NonNull String tableName,
+                                                            @Define("columnList") @NonNull String columnList,
+                                                            @Define("conditions") @NonNull String conditions,
+                                                            @BindMap @NonNull Map<String, Object> bindings);
 
     /**
      * Inner implementation. Not for Override!!!
      */
-    @SqlQuery("select * from <tableName> where <column> <operand> :value order by <idColumnName> desc")
-    List<ENTITY> internalFind(@Define("tableName") @NonNull String tableName,
-                              @Define("column") @NonNull String column,
-                              @Bind("value") @Nullable Object value,
-                              @Define("operand") @NonNull String operand,
-                              @Define("idColumnName") @NonNull String idColumnName);
+    @SqlQuery("select * from <tableName> where <idColumnName> in (<ids>)")
+    List<ENTITY> internalFindByIds(@DefineTable @NonNull String tableName,
+                                   @Define("idColumnName") @NonNull String idColumnName,
+                                   @BindList("ids") @NonNull Collection<ID> ids);
 
     /**
      * Inner implementation. Not for Override!!!
      */
-    @SqlUpdate("truncate table <tableName>")
-    void internalTruncate(@Define("tableName") @NonNull String tableName);
+    @SqlQuery("select <top> <idColumnName> from <tableName> where <conditions> <limit>")
+    List<ID> internalFindIdsConditions(@DefineTable @NonNull String tableName,
+                                       @Define("idColumnName") @NonNull String idColumnName,
+                                       @Define("conditions") @NonNull String conditions,
+                                       @BindMap @NonNull Map<String, Object> bindings,
+                                       @DefineLimit int limit);
 
     /**
      * Inner implementation. Not for Override!!!
      */
-    @SqlUpdate("delete from <tableName> where <idColumnName> = :id")
-    int internalDelete(@Define("tableName") @NonNull String tableName,
-                       @Define("idColumnName") @NonNull String idColumnName,
-                       @Bind("id") @NonNull ID id);
+    @SqlQuery("select <top> <idColumnName> from <tableName> <limit>")
+    List<ID> internalFindIds(@DefineTable @NonNull String tableName,
+                             @Define("idColumnName") @NonNull String idColumnName,
+                             @DefineLimit int limit);
 
     /**
      * Inner implementation. Not for Override!!!
      */
     @SqlUpdate("insert into <tableName> (<columnList>) values (<valueList>)")
-    void internalInsert(@Define("tableName") @NonNull String tableName,
+    void internalInsert(@DefineTable @NonNull String tableName,
                         @DefineList("columnList") @NonNull List<String> columnList,
                         @BindList("valueList") @NonNull List<Object> valueList);
 
+    /**
+     * Inner implementation. Not for Override!!!
+     * <br/>tableName только для тегов метрик, логов и уведомлений об изменениях, в sql не подставляется.
+     */
+    @SqlBatch("<statement>")
+    @PrecompiledStatement
+    int[] internalBatch(@Define("tableName") @NonNull String tableName,
+                        @Define("statement") @NonNull String statement,
+                        @BindMap @NonNull Iterable<Map<String, Object>> rows,
+                        @BatchChunkSize int batchSize);
+
+    /**
+     * Inner implementation. Not for Override!!!
+     * <br/>tableName только для тегов метрик и логов, в sql не подставляется.
+     */
+    @SqlQuery("<statement>")
+    @PrecompiledStatement
+    long internalCountPrecompiled(@Define("tableName") @NonNull String tableName,
+                                  @Define("statement") @NonNull String statement);
+
+    /**
+     * Inner implementation. Not for Override!!!
+     * <br/>tableName только для тегов метрик и логов, в sql не подставляется.
+     */
+    @SqlQuery("<statement>")
+    @PrecompiledStatement
+    List<Integer> internalExistsPrecompiled(@Define("tableName") @NonNull String tableName,
+                                            @Define("statement") @NonNull String statement);
+
+    /**
+     * Inner implementation. Not for Override!!!
+     * <br/>tableName только для тегов метрик и логов, в sql не подставляется.
+     */
+    @SqlQuery("<statement>")
+    @PrecompiledStatement
+    List<ENTITY> internalQueryPrecompiled(@Define("tableName") @NonNull String tableName,
+                                          @Define("statement") @NonNull String statement,
+                                          @BindMap @NonNull Map<String, Object> bindings);
+
+    /**
+     * Inner implementation. Not for Override!!!
+     * <br/>tableName только для тегов метрик и логов, в sql не подставляется.
+     */
+    @SqlUpdate("<statement>")
+    @PrecompiledStatement
+    int internalUpdatePrecompiled(@Define("tableName") @NonNull String tableName,
+                                  @Define("statement") @NonNull String statement,
+                                  @BindMap @NonNull Map<String, Object> bindings);
+
     /**
      * Inner implementation. Not for Override!!!
      */
     @SqlUpdate("update <tableName> set <columnName> = :value where <idColumnName> = :id")
-    void internalUpdate(@Define("tableName") @NonNull String tableName,
+    void internalUpdate(@DefineTable @NonNull String tableName,
                         @Define("columnName") @NonNull String columnName,
                         @Bind("value") @Nullable Object value,
                         @Define("idColumnName") @NonNull String idColumnName,
                         @Bind("id") @NonNull ID id);
 
+    /**
+     * Inner implementation. Not for Override!!!
+     */
+    @SqlUpdate("update <tableName> set <setList> where <idColumnName> = :id")
+    int internalUpdateColumns(@DefineTable @NonNull String tableName,
+                              @Define("setList") @NonNull String setList,
+                              @BindMap @NonNull Map<String, Object> values,
+                              @Define("idColumnName") @NonNull String idColumnName,
+                              @Bind("id") @NonNull ID id);
+
     /**
      * Inner implementation. Not for Override!!!
      */
     @SqlUpdate("update <tableName> set <columnName> = :value")
-    int internalUpdateAll(@Define("tableName") @NonNull String tableName,
+    int internalUpdateAll(@DefineTable @NonNull String tableName,
                           @Define("columnName") @NonNull String columnName,
                           @Bind("value") @Nullable Object value);
     //endregion
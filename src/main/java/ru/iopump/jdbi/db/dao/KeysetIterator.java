@@ -0,0 +1,70 @@
+package ru.iopump.jdbi.db.dao;
+
+import static java.lang.String.format;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import lombok.NonNull;
+import ru.iopump.jdbi.db.dao.InternalCrudDao.OrderType;
+import ru.iopump.jdbi.db.entity.Entity;
+import ru.iopump.jdbi.db.exception.DbException;
+
+/**
+ * Итератор по записям таблицы, запрашивающий страницы через {@link CrudDao#pageAfter}.
+ */
+final class KeysetIterator<ENTITY extends Entity<ID>, ID> implements Iterator<ENTITY> {
+    private final CrudDao<ENTITY, ID> dao;
+    private final DaoConditionChain conditionChain;
+    private final int pageSize;
+    private final OrderType orderType;
+
+    private Iterator<ENTITY> page = Collections.emptyIterator();
+    private ID lastId;
+    private boolean lastPage;
+
+    KeysetIterator(@NonNull CrudDao<ENTITY, ID> dao,
+                   @NonNull DaoConditionChain conditionChain,
+                   int pageSize,
+                   @NonNull OrderType orderType) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException(format("Размер страницы должен быть больше 0, а не %d", pageSize));
+        }
+        this.dao = dao;
+        this.conditionChain = conditionChain;
+        this.pageSize = pageSize;
+        this.orderType = orderType;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!page.hasNext() && !lastPage) {
+            fetchNextPage();
+        }
+        return page.hasNext();
+    }
+
+    @Override
+    public ENTITY next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return page.next();
+    }
+
+    private void fetchNextPage() {
+        final List<ENTITY> records = dao.pageAfter(conditionChain, lastId, pageSize, orderType);
+        lastPage = records.size() < pageSize;
+        if (!records.isEmpty()) {
+            final ENTITY last = records.get(records.size() - 1);
+            if (last.id() == null) {
+                throw new DbException(format("[%s] Постраничный обход невозможен: у записи не заполнен id",
+                        last.getClass().getSimpleName()));
+            }
+            lastId = last.id();
+        }
+        page = records.iterator();
+    }
+}
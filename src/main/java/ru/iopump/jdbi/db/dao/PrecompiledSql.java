@@ -0,0 +1,73 @@
+package ru.iopump.jdbi.db.dao;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import lombok.NonNull;
+import lombok.Value;
+import org.apache.commons.lang3.StringUtils;
+import ru.iopump.jdbi.db.dialect.SqlDialect;
+
+/**
+ * Неизменяемые запросы DAO, в которых меняются только параметры (:id).
+ * Собираются один раз на (диалект, таблица, колонка id) и выполняются через {@link PrecompiledStatement},
+ * т.е. без разбора шаблона Jdbi при каждом вызове.
+ * <br/>Кэш не ограничен: его размер - кол-во таблиц и диалектов в приложении.
+ * <br/>Поиск в кэше выполняется при каждом вызове findOne / delete / count и т.п., поэтому он без выделения
+ * ключа и без блокировки: {@link ConcurrentHashMap#computeIfAbsent} в Java 8 блокирует бакет
+ * даже для существующего ключа (JDK-8161372), он вызывается только при промахе.
+ */
+@Value
+public class PrecompiledSql {
+    private static final ConcurrentMap<SqlDialect, ConcurrentMap<String, ConcurrentMap<String, PrecompiledSql>>> CACHE =
+            new ConcurrentHashMap<>();
+
+    private final String count;
+    private final String existsAll;
+    private final String findById;
+    private final String deleteById;
+    private final String deleteAll;
+    private final String truncate;
+
+    /**
+     * Запросы из кэша или собранные и сохраненные в кэш.
+     *
+     * @param dialect      Диалект СУБД.
+     * @param tableName    Имя таблицы в sql, т.е. уже экранированное, если нужно.
+     * @param idColumnName Колонка id.
+     */
+    @NonNull
+    public static PrecompiledSql of(@NonNull SqlDialect dialect, @NonNull String tableName, @NonNull String idColumnName) {
+        final ConcurrentMap<String, PrecompiledSql> byIdColumn =
+                cached(cached(CACHE, dialect, key -> new ConcurrentHashMap<>()), tableName, key -> new ConcurrentHashMap<>());
+        final PrecompiledSql result = byIdColumn.get(idColumnName);
+        return result != null
+                ? result
+                : byIdColumn.computeIfAbsent(idColumnName, key -> compile(dialect, tableName, idColumnName));
+    }
+
+    //region Private
+    private static <K, V> V cached(ConcurrentMap<K, V> map, K key, Function<? super K, ? extends V> factory) {
+        final V result = map.get(key);
+        return result != null ? result : map.computeIfAbsent(key, factory);
+    }
+
+    static PrecompiledSql compile(SqlDialect dialect, String tableName, String idColumnName) {
+        return new PrecompiledSql(
+                "select count(*) from " + tableName,
+                join("select", dialect.top(1), "1 from", tableName, dialect.limit(1)),
+                "select * from " + tableName + " where " + idColumnName + " = :id",
+                "delete from " + tableName + " where " + idColumnName + " = :id",
+                "delete from " + tableName,
+                dialect.truncate(tableName)
+        );
+    }
+
+    private static String join(String... parts) {
+        return Stream.of(parts).filter(StringUtils::isNotBlank).collect(Collectors.joining(" "));
+    }
+    //endregion
+}
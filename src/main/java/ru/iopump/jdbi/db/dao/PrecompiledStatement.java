@@ -0,0 +1,37 @@
+package ru.iopump.jdbi.db.dao;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+
+import org.jdbi.v3.core.statement.DefinedAttributeTemplateEngine;
+import org.jdbi.v3.core.statement.TemplateEngine;
+import org.jdbi.v3.sqlobject.customizer.SqlStatementCustomizer;
+import org.jdbi.v3.sqlobject.customizer.SqlStatementCustomizerFactory;
+import org.jdbi.v3.sqlobject.customizer.SqlStatementCustomizingAnnotation;
+
+/**
+ * Запрос целиком передается атрибутом {@code statement} (шаблон {@code "<statement>"}) и выполняется как есть,
+ * без разбора шаблона. Если атрибута нет, то используется {@link DefinedAttributeTemplateEngine}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@SqlStatementCustomizingAnnotation(PrecompiledStatement.Factory.class)
+public @interface PrecompiledStatement {
+
+    class Factory implements SqlStatementCustomizerFactory {
+        private static final TemplateEngine FALLBACK = new DefinedAttributeTemplateEngine();
+        private static final TemplateEngine ENGINE = (template, context) -> {
+            final Object statement = context.getAttribute("statement");
+            return statement == null ? FALLBACK.render(template, context) : statement.toString();
+        };
+
+        @Override
+        public SqlStatementCustomizer createForMethod(Annotation annotation, Class<?> sqlObjectType, Method method) {
+            return statement -> statement.setTemplateEngine(ENGINE);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package ru.iopump.jdbi.db.dao.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import ru.iopump.jdbi.db.exception.DbException;
+
+/**
+ * Индекс DAO, сформированный при компиляции {@link DaoIndexProcessor}.
+ * <br/>Формат ресурса {@link #RESOURCE}: строка на DAO вида 'полное имя класса=имя таблицы',
+ * имя таблицы пустое, если оно не задано в {@link ru.iopump.jdbi.db.dao.Dao#tableName()}.
+ */
+@Slf4j
+@UtilityClass
+public class DaoIndex {
+    public static final String RESOURCE = "META-INF/jdbi-crud/dao.index";
+
+    /**
+     * Прочитать индексы всех модулей в classLoader.
+     *
+     * @return [полное имя класса : имя таблицы или пустая строка]. Пустая карта, если индексов нет.
+     */
+    @NonNull
+    public Map<String, String> read(@NonNull ClassLoader classLoader) {
+        final Map<String, String> result = new LinkedHashMap<>();
+        try {
+            final Enumeration<URL> resources = classLoader.getResources(RESOURCE);
+            while (resources.hasMoreElements()) {
+                final URL url = resources.nextElement();
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(),
+                        StandardCharsets.UTF_8))) {
+                    reader.lines()
+                            .map(String::trim)
+                            .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                            .forEach(line -> result.put(StringUtils.substringBefore(line, "=").trim(),
+                                    StringUtils.substringAfter(line, "=").trim()));
+                }
+                log.debug("[DAO INDEX] Загружен индекс {}", url);
+            }
+        } catch (IOException e) {
+            throw new DbException("Ошибка чтения индекса DAO " + RESOURCE, e);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,87 @@
+package ru.iopump.jdbi.db.dao.index;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import ru.iopump.jdbi.db.dao.Dao;
+
+/**
+ * Процессор аннотаций, который при компиляции собирает все интерфейсы, наследующие CrudDao, в {@link DaoIndex#RESOURCE}.
+ * DAO с {@code @Dao(include = false)} пропускаются.
+ * <br/>Подключение в Gradle: {@code annotationProcessor 'ru.iopump.jdbi:jdbi-crud:<version>'}.
+ */
+@SupportedAnnotationTypes("*")
+public class DaoIndexProcessor extends AbstractProcessor {
+    private static final String CRUD_DAO = "ru.iopump.jdbi.db.dao.CrudDao";
+
+    private final Map<String, String> index = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        final TypeElement crudDao = processingEnv.getElementUtils().getTypeElement(CRUD_DAO);
+        if (crudDao == null) {
+            return false;
+        }
+        final TypeMirror crudDaoType = processingEnv.getTypeUtils().erasure(crudDao.asType());
+        for (Element element : roundEnv.getRootElements()) {
+            collect(element, crudDao, crudDaoType);
+        }
+        if (roundEnv.processingOver() && !index.isEmpty()) {
+            write();
+        }
+        return false;
+    }
+
+    private void collect(Element element, TypeElement crudDao, TypeMirror crudDaoType) {
+        if (element.getKind() == ElementKind.INTERFACE && !element.equals(crudDao)
+                && processingEnv.getTypeUtils().isAssignable(
+                processingEnv.getTypeUtils().erasure(element.asType()), crudDaoType)) {
+            final Dao dao = element.getAnnotation(Dao.class);
+            if (dao == null || dao.include()) {
+                final String name = processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString();
+                index.put(name, dao == null ? "" : dao.tableName());
+            }
+        }
+        for (Element enclosed : element.getEnclosedElements()) {
+            if (enclosed.getKind().isClass() || enclosed.getKind().isInterface()) {
+                collect(enclosed, crudDao, crudDaoType);
+            }
+        }
+    }
+
+    private void write() {
+        try {
+            final FileObject file = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", DaoIndex.RESOURCE);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, String> entry : index.entrySet()) {
+                    writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Не удалось записать индекс DAO " + DaoIndex.RESOURCE + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ru.iopump.jdbi.db.dialect;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+
+import org.jdbi.v3.sqlobject.customizer.SqlStatementCustomizerFactory;
+import org.jdbi.v3.sqlobject.customizer.SqlStatementCustomizingAnnotation;
+import org.jdbi.v3.sqlobject.customizer.SqlStatementParameterCustomizer;
+
+/**
+ * Ограничение кол-ва строк по диалекту: определяет атрибуты шаблона {@code <top>} и {@code <limit>}
+ * через {@link SqlDialect#top(int)} и {@link SqlDialect#limit(int)}.
+ * <br/>Шаблон: {@code select <top> * from <tableName> order by .. <limit>}.
+ * <br/>Параметр должен быть типа int.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+@SqlStatementCustomizingAnnotation(DefineLimit.Factory.class)
+public @interface DefineLimit {
+
+    class Factory implements SqlStatementCustomizerFactory {
+        @Override
+        public SqlStatementParameterCustomizer createForParameter(Annotation annotation,
+                                                                  Class<?> sqlObjectType,
+                                                                  Method method,
+                                                                  Parameter param,
+                                                                  int index,
+                                                                  Type paramType) {
+            return (statement, arg) -> {
+                final SqlDialect dialect = DialectConfig.dialect(statement.getContext());
+                final int limit = (Integer) arg;
+                statement.define("top", dialect.top(limit));
+                statement.define("limit", dialect.limit(limit));
+            };
+        }
+    }
+}
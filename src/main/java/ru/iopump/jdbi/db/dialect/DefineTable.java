@@ -0,0 +1,42 @@
+package ru.iopump.jdbi.db.dialect;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+
+import org.jdbi.v3.sqlobject.customizer.SqlStatementCustomizerFactory;
+import org.jdbi.v3.sqlobject.customizer.SqlStatementCustomizingAnnotation;
+import org.jdbi.v3.sqlobject.customizer.SqlStatementParameterCustomizer;
+
+/**
+ * Имя таблицы: определяет атрибут шаблона {@code <tableName>},
+ * экранированный по диалекту, если включено {@link DialectConfig#isQuoteIdentifiers()}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+@SqlStatementCustomizingAnnotation(DefineTable.Factory.class)
+public @interface DefineTable {
+
+    class Factory implements SqlStatementCustomizerFactory {
+        @Override
+        public SqlStatementParameterCustomizer createForParameter(Annotation annotation,
+                                                                  Class<?> sqlObjectType,
+                                                                  Method method,
+                                                                  Parameter param,
+                                                                  int index,
+                                                                  Type paramType) {
+            return (statement, arg) -> {
+                final DialectConfig config = statement.getContext().getConfig(DialectConfig.class);
+                final String tableName = (String) arg;
+                statement.define("tableName", config.isQuoteIdentifiers()
+                        ? config.tableName(tableName, config.getDialect(statement.getContext().getConnection()))
+                        : tableName);
+            };
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package ru.iopump.jdbi.db.dialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.Nullable;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import org.jdbi.v3.core.config.JdbiConfig;
+import org.jdbi.v3.core.statement.StatementContext;
+import ru.iopump.jdbi.db.exception.DbException;
+
+/**
+ * Настройка диалекта для Jdbi.
+ * <br/>Явно: {@code jdbi.getConfig(DialectConfig.class).setDialect(StandardDialect.POSTGRES)}.
+ * <br/>Иначе диалект определяется по метаданным первого соединения и запоминается для всех Handle этого Jdbi.
+ */
+public class DialectConfig implements JdbiConfig<DialectConfig> {
+    private final AtomicReference<SqlDialect> detected;
+    @Setter
+    @Nullable
+    private SqlDialect dialect;
+    /**
+     * Экранировать имя таблицы через {@link SqlDialect#quote(String)} (по умолчанию выключено).
+     * Нужно для имен, совпадающих с ключевыми словами, или в нестандартном регистре.
+     * Экранированное имя чувствительно к регистру: {@link ru.iopump.jdbi.db.dao.CrudDao#getTableName()}
+     * должен возвращать имя точно как в СУБД. Условия, переданные строкой, не экранируются.
+     */
+    @Getter
+    @Setter
+    private boolean quoteIdentifiers;
+
+    public DialectConfig() {
+        this.detected = new AtomicReference<>();
+    }
+
+    private DialectConfig(DialectConfig that) {
+        this.detected = that.detected;
+        this.dialect = that.dialect;
+        this.quoteIdentifiers = that.quoteIdentifiers;
+    }
+
+    /**
+     * Диалект для выполняемого запроса.
+     */
+    @NonNull
+    public static SqlDialect dialect(@NonNull StatementContext context) {
+        return context.getConfig(DialectConfig.class).getDialect(context.getConnection());
+    }
+
+    /**
+     * Получить диалект: заданный явно или определенный по соединению.
+     *
+     * @param connection Соединение для определения диалекта.
+     */
+    @NonNull
+    public SqlDialect getDialect(@NonNull Connection connection) {
+        if (dialect != null) {
+            return dialect;
+        }
+        final SqlDialect result = detected.get();
+        if (result != null) {
+            return result;
+        }
+        try {
+            detected.compareAndSet(null, StandardDialect.detect(connection.getMetaData().getDatabaseProductName()));
+        } catch (SQLException e) {
+            throw new DbException("Не удалось определить диалект СУБД", e);
+        }
+        return detected.get();
+    }
+
+    /**
+     * Имя таблицы для запроса с учетом {@link #isQuoteIdentifiers()}.
+     */
+    @NonNull
+    public String tableName(@NonNull String tableName, @NonNull SqlDialect sqlDialect) {
+        return quoteIdentifiers ? sqlDialect.quote(tableName) : tableName;
+    }
+
+    @Override
+    public DialectConfig createCopy() {
+        return new DialectConfig(this);
+    }
+}
@@ -0,0 +1,106 @@
+package ru.iopump.jdbi.db.dialect;
+
+import static java.lang.String.format;
+
+import java.util.List;
+
+import lombok.NonNull;
+import ru.iopump.jdbi.db.exception.DbException;
+
+/**
+ * Диалект СУБД. Формирует фрагменты и запросы, синтаксис которых отличается между СУБД.
+ * <br/>Методы по умолчанию соответствуют стандарту SQL:2008.
+ * <br/>Стандартные реализации в {@link StandardDialect}, выбор диалекта для Jdbi в {@link DialectConfig}.
+ */
+public interface SqlDialect {
+
+    /**
+     * Ограничение кол-ва строк сразу после 'select', например 'top (10)'.
+     *
+     * @param limit Максимальное кол-во строк.
+     * @return Фрагмент запроса или пустая строка.
+     */
+    @NonNull
+    default String top(int limit) {
+        return "";
+    }
+
+    /**
+     * Ограничение кол-ва строк в конце запроса, например 'limit 10'.
+     *
+     * @param limit Максимальное кол-во строк.
+     * @return Фрагмент запроса или пустая строка.
+     */
+    @NonNull
+    default String limit(int limit) {
+        return format("fetch first %d rows only", limit);
+    }
+
+    /**
+     * Запрос очистки таблицы.
+     *
+     * @param tableName Имя таблицы.
+     */
+    @NonNull
+    default String truncate(@NonNull String tableName) {
+        return "truncate table " + tableName;
+    }
+
+    /**
+     * Запрос вставки одной строки, выполняется в JDBC batch.
+     *
+     * @param tableName    Имя таблицы.
+     * @param columns      Колонки.
+     * @param placeholders Именованные параметры значений в порядке columns, например ':p0, :p1'.
+     */
+    @NonNull
+    default String insert(@NonNull String tableName, @NonNull List<String> columns, @NonNull String placeholders) {
+        return format("insert into %s (%s) values (%s)", tableName, String.join(", ", columns), placeholders);
+    }
+
+    /**
+     * Запрос вставки или обновления записи по колонке ID одним атомарным выражением.
+     *
+     * @param tableName    Имя таблицы.
+     * @param idColumnName Имя колонки ID.
+     * @param columns      Колонки записи, включая колонку ID.
+     * @param placeholders Именованные параметры значений в порядке columns, например ':p0, :p1'.
+     * @return Текст запроса.
+     * @throws DbException Диалект не поддерживает upsert.
+     */
+    @NonNull
+    default String upsert(@NonNull String tableName,
+                          @NonNull String idColumnName,
+                          @NonNull List<String> columns,
+                          @NonNull String placeholders) {
+        throw new DbException(format("Диалект %s не поддерживает upsert", this));
+    }
+
+    /**
+     * Экранировать идентификатор (имя таблицы, колонки). Составное имя 'schema.table' экранируется по частям.
+     * Экранированный идентификатор чувствителен к регистру.
+     *
+     * @param identifier Идентификатор.
+     */
+    @NonNull
+    default String quote(@NonNull String identifier) {
+        return quote(identifier, '"', '"');
+    }
+
+    /**
+     * Экранировать идентификатор заданными символами, см. {@link #quote(String)}.
+     */
+    @NonNull
+    static String quote(@NonNull String identifier, char open, char close) {
+        final StringBuilder result = new StringBuilder(identifier.length() + 4);
+        for (String part : identifier.split("\\.")) {
+            if (result.length() > 0) {
+                result.append('.');
+            }
+            result.append(open)
+                    .append(part.replace(String.valueOf(close), String.valueOf(close) + close))
+                    .append(close);
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,194 @@
+package ru.iopump.jdbi.db.dialect;
+
+import static java.lang.String.format;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Стандартные диалекты.
+ */
+@Slf4j
+public enum StandardDialect implements SqlDialect {
+    /**
+     * 'merge into .. key (id) values ..'. Работает в любом режиме совместимости H2.
+     */
+    H2 {
+        @Override
+        public String limit(int limit) {
+            return "limit " + limit;
+        }
+
+        @Override
+        public String upsert(String tableName, String idColumnName, List<String> columns, String placeholders) {
+            return format("merge into %s (%s) key (%s) values (%s)",
+                    tableName, String.join(", ", columns), idColumnName, placeholders);
+        }
+    },
+    /**
+     * 'insert .. on duplicate key update ..'. Также MariaDB.
+     */
+    MYSQL {
+        @Override
+        public String limit(int limit) {
+            return "limit " + limit;
+        }
+
+        @Override
+        public String upsert(String tableName, String idColumnName, List<String> columns, String placeholders) {
+            final String assignments = assignments(idColumnName, columns, column -> format("values(%s)", column));
+            return format("insert into %s (%s) values (%s) on duplicate key update %s",
+                    tableName,
+                    String.join(", ", columns),
+                    placeholders,
+                    assignments.isEmpty() ? idColumnName + " = " + idColumnName : assignments);
+        }
+
+        @Override
+        public String quote(String identifier) {
+            return SqlDialect.quote(identifier, '`', '`');
+        }
+    },
+    /**
+     * 'insert .. on conflict (id) do update ..'. PostgreSQL 9.5+.
+     */
+    POSTGRES {
+        @Override
+        public String limit(int limit) {
+            return "limit " + limit;
+        }
+
+        @Override
+        public String upsert(String tableName, String idColumnName, List<String> columns, String placeholders) {
+            final String assignments = assignments(idColumnName, columns, column -> "excluded." + column);
+            return format("insert into %s (%s) values (%s) on conflict (%s) do %s",
+                    tableName,
+                    String.join(", ", columns),
+                    placeholders,
+                    idColumnName,
+                    assignments.isEmpty() ? "nothing" : "update set " + assignments);
+        }
+    },
+    /**
+     * 'fetch first n rows only' и 'merge .. using (select .. from dual)'. Oracle 12c+.
+     */
+    ORACLE {
+        @Override
+        public String upsert(String tableName, String idColumnName, List<String> columns, String placeholders) {
+            final String[] values = placeholders.split(",\\s*");
+            final StringJoiner source = new StringJoiner(", ");
+            for (int i = 0; i < columns.size(); i++) {
+                source.add(values[i] + " " + columns.get(i));
+            }
+            return merge(tableName, idColumnName, columns, "(select " + source + " from dual) s");
+        }
+    },
+    /**
+     * 'select top (n)' и 'merge .. using (values ..)'. Microsoft SQL Server 2008+.
+     */
+    MSSQL {
+        @Override
+        public String top(int limit) {
+            return format("top (%d)", limit);
+        }
+
+        @Override
+        public String limit(int limit) {
+            return "";
+        }
+
+        @Override
+        public String upsert(String tableName, String idColumnName, List<String> columns, String placeholders) {
+            return merge(tableName, idColumnName, columns,
+                    format("(values (%s)) as s (%s)", placeholders, String.join(", ", columns))) + ";";
+        }
+
+        @Override
+        public String quote(String identifier) {
+            return SqlDialect.quote(identifier, '[', ']');
+        }
+    },
+    /**
+     * 'truncate table .. immediate' и 'merge .. using (values ..)'.
+     */
+    DB2 {
+        @Override
+        public String truncate(String tableName) {
+            return "truncate table " + tableName + " immediate";
+        }
+
+        @Override
+        public String upsert(String tableName, String idColumnName, List<String> columns, String placeholders) {
+            return merge(tableName, idColumnName, columns,
+                    format("(values (%s)) as s (%s)", placeholders, String.join(", ", columns)));
+        }
+    },
+    /**
+     * Стандарт SQL:2008 для остальных СУБД, upsert не поддерживается.
+     */
+    ANSI;
+
+    /**
+     * Определить диалект по имени СУБД из {@link java.sql.DatabaseMetaData#getDatabaseProductName()}.
+     * Для неизвестной СУБД - {@link #ANSI}.
+     */
+    public static StandardDialect detect(@NonNull String databaseProductName) {
+        final String name = databaseProductName.toLowerCase(Locale.ROOT);
+        if (name.contains("h2")) {
+            return H2;
+        }
+        if (name.contains("mysql") || name.contains("mariadb")) {
+            return MYSQL;
+        }
+        if (name.contains("postgres")) {
+            return POSTGRES;
+        }
+        if (name.contains("oracle")) {
+            return ORACLE;
+        }
+        if (name.contains("microsoft") || name.contains("sql server")) {
+            return MSSQL;
+        }
+        if (name.startsWith("db2")) {
+            return DB2;
+        }
+        log.warn("Диалект для СУБД '{}' не найден, используется {}. Укажите диалект явно в {}",
+                databaseProductName, ANSI, DialectConfig.class.getSimpleName());
+        return ANSI;
+    }
+
+    /**
+     * 'merge into t using source on (t.id = s.id) when matched .. when not matched ..'.
+     */
+    private static String merge(String tableName, String idColumnName, List<String> columns, String source) {
+        final String assignments = assignments(idColumnName, columns, column -> "s." + column);
+        final StringJoiner values = new StringJoiner(", ");
+        columns.forEach(column -> values.add("s." + column));
+        return format("merge into %s t using %s on (t.%s = s.%s)%s when not matched then insert (%s) values (%s)",
+                tableName,
+                source,
+                idColumnName,
+                idColumnName,
+                assignments.isEmpty() ? "" : " when matched then update set " + assignments,
+                String.join(", ", columns),
+                values);
+    }
+
+    /**
+     * Присваивания 'c = value(c)' для всех колонок, кроме колонки ID.
+     */
+    private static String assignments(String idColumnName, List<String> columns, Function<String, String> value) {
+        final StringJoiner joiner = new StringJoiner(", ");
+        for (String column : columns) {
+            if (!column.equalsIgnoreCase(idColumnName)) {
+                joiner.add(column + " = " + value.apply(column));
+            }
+        }
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,179 @@
+package ru.iopump.jdbi.db.entity;
+
+import static java.lang.String.format;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import javax.persistence.Column;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.reflect.FieldUtils;
+import ru.iopump.jdbi.db.exception.DbException;
+
+/**
+ * Метаданные колонок класса сущности.
+ * <br/>Вычисляются один раз на класс и кэшируются, поиск поля по имени поля или колонки (любым регистром) - O(1).
+ * <br/>Доступ к значениям через заранее открытые {@link MethodHandle}, без повторного обхода иерархии классов.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class EntityMetadata {
+    private static final Map<Class<?>, EntityMetadata> CACHE = new ConcurrentHashMap<>();
+
+    @Getter
+    private final Class<?> entityClass;
+    /**
+     * Уникальные по имени колонки, декларированные в классе идут первыми и имеют больший приоритет.
+     */
+    @Getter
+    private final List<ColumnField> columns;
+    private final Map<String, List<ColumnField>> byName;
+
+    private EntityMetadata(@NonNull Class<?> entityClass) {
+        this.entityClass = entityClass;
+        final List<ColumnField> all = FieldUtils.getFieldsListWithAnnotation(entityClass, Column.class)
+                .stream()
+                .map(ColumnField::new)
+                .collect(Collectors.toList());
+
+        final Map<String, ColumnField> unique = new LinkedHashMap<>();
+        all.forEach(c -> unique.putIfAbsent(c.getName(), c));
+        this.columns = Collections.unmodifiableList(new ArrayList<>(unique.values()));
+
+        final Map<String, Set<ColumnField>> matches = new HashMap<>();
+        for (ColumnField c : all) {
+            matches.computeIfAbsent(key(c.getField().getName()), k -> new LinkedHashSet<>()).add(c);
+            matches.computeIfAbsent(key(c.getField().getAnnotation(Column.class).name()), k -> new LinkedHashSet<>()).add(c);
+        }
+        final Map<String, List<ColumnField>> tmp = new HashMap<>();
+        matches.forEach((name, fields) -> {
+            final List<ColumnField> declared = fields.stream()
+                    .filter(f -> f.getField().getDeclaringClass() == entityClass)
+                    .collect(Collectors.toList());
+            tmp.put(name, Collections.unmodifiableList(declared.isEmpty() ? new ArrayList<>(fields) : declared));
+        });
+        this.byName = tmp;
+    }
+
+    /**
+     * Получить метаданные класса сущности из кэша, при первом обращении вычислить их.
+     */
+    @NonNull
+    public static EntityMetadata of(@NonNull Class<?> entityClass) {
+        return CACHE.computeIfAbsent(entityClass, EntityMetadata::new);
+    }
+
+    /**
+     * Найти все поля-колонки по имени поля или колонки любым регистром.
+     * Если среди найденных есть декларированные в самом классе, то возвращаются только они.
+     */
+    @NonNull
+    public List<ColumnField> find(@NonNull String fieldOrColumnName) {
+        return byName.getOrDefault(key(fieldOrColumnName), Collections.emptyList());
+    }
+
+    public boolean hasColumn(@NonNull String fieldOrColumnName) {
+        return !find(fieldOrColumnName).isEmpty();
+    }
+
+    /**
+     * Получить единственное поле-колонку по имени поля или колонки любым регистром.
+     *
+     * @throws DbException Поле не найдено или найдено более одного.
+     */
+    @NonNull
+    public ColumnField getColumn(@NonNull String fieldOrColumnName) {
+        final List<ColumnField> values = find(fieldOrColumnName);
+        if (values.isEmpty()) {
+            throw new DbException(format("В классе '%s' не существует поля-колонки '%s'", entityClass.getSimpleName(), fieldOrColumnName));
+        }
+        if (values.size() > 1) {
+            throw new DbException(format("В классе '%s' найдено более одного поля-колонки '%s'. Уточните поиск",
+                    entityClass.getSimpleName(),
+                    fieldOrColumnName));
+        }
+        return values.get(0);
+    }
+
+    private static String key(@Nullable String name) {
+        return StringUtils.defaultString(name).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Поле-колонка с открытыми аксессорами.
+     */
+    public static final class ColumnField {
+        @Getter
+        private final Field field;
+        /**
+         * Имя колонки из {@link Column#name()} или имя поля, если имя колонки не указано.
+         */
+        @Getter
+        private final String name;
+        private final MethodHandle getter;
+        @Nullable
+        private final MethodHandle setter;
+
+        private ColumnField(@NonNull Field field) {
+            this.field = field;
+            final Column column = field.getAnnotation(Column.class);
+            this.name = column != null && !StringUtils.isBlank(column.name()) ? column.name() : field.getName();
+            field.setAccessible(true);
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            try {
+                this.getter = lookup.unreflectGetter(field)
+                        .asType(MethodType.methodType(Object.class, Object.class));
+            } catch (IllegalAccessException e) {
+                throw new DbException(format("Нет доступа к полю '%s'", field), e);
+            }
+            MethodHandle tmpSetter;
+            try {
+                tmpSetter = lookup.unreflectSetter(field)
+                        .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            } catch (IllegalAccessException e) {
+                tmpSetter = null;
+            }
+            this.setter = tmpSetter;
+        }
+
+        @Nullable
+        public Object getValue(@NonNull Object entity) {
+            try {
+                return (Object) getter.invokeExact(entity);
+            } catch (Throwable e) {
+                throw new DbException(format("Ошибка чтения поля '%s'", field), e);
+            }
+        }
+
+        public void setValue(@NonNull Object entity, @Nullable Object value) {
+            if (setter == null) {
+                throw new DbException(format("Поле '%s' недоступно для записи", field));
+            }
+            try {
+                setter.invokeExact(entity, value);
+            } catch (Throwable e) {
+                throw new DbException(format("Ошибка записи в поле '%s' значения '%s'", field, value), e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return name + " -> " + field;
+        }
+    }
+}
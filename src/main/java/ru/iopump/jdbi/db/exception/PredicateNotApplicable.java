@@ -0,0 +1,11 @@
+package ru.iopump.jdbi.db.exception;
+
+/**
+ * Предикат условия не может точно проверить запись в Java (нет колонки, другой тип значения),
+ * условие нужно проверить запросом к СУБД.
+ */
+public class PredicateNotApplicable extends DbException {
+    public PredicateNotApplicable(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,67 @@
+package ru.iopump.jdbi.db.helper;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import lombok.ToString;
+
+/**
+ * Экспоненциальная задержка со случайным разбросом.
+ * <br/>Первые probeAttempts попыток выполняются с короткой задержкой probeDelayMs, чтобы быстро заметить
+ * уже появившиеся записи. Далее задержка растет от initialDelayMs с множителем multiplier до maxDelayMs.
+ * <br/>К задержке добавляется случайный разброс ±jitter (доля от 0 до 1), чтобы одновременно запущенные
+ * ожидания не опрашивали СУБД синхронно.
+ */
+@ToString
+public class BackoffWaitStrategy implements WaitStrategy {
+    private final long probeDelayMs;
+    private final int probeAttempts;
+    private final long initialDelayMs;
+    private final long maxDelayMs;
+    private final double multiplier;
+    private final double jitter;
+
+    public BackoffWaitStrategy(long probeDelayMs,
+                               int probeAttempts,
+                               long initialDelayMs,
+                               long maxDelayMs,
+                               double multiplier,
+                               double jitter) {
+        if (probeDelayMs < 0 || probeAttempts < 0 || initialDelayMs < 0 || maxDelayMs < initialDelayMs) {
+            throw new IllegalArgumentException("Неверные задержки: " +
+                    "probeDelayMs, probeAttempts, initialDelayMs >= 0 и maxDelayMs >= initialDelayMs");
+        }
+        if (multiplier < 1) {
+            throw new IllegalArgumentException("Множитель должен быть >= 1, а не " + multiplier);
+        }
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("Разброс должен быть в диапазоне [0, 1], а не " + jitter);
+        }
+        this.probeDelayMs = probeDelayMs;
+        this.probeAttempts = probeAttempts;
+        this.initialDelayMs = initialDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.multiplier = multiplier;
+        this.jitter = jitter;
+    }
+
+    /**
+     * 5 попыток через 50 мс, затем от 200 мс с множителем 2 до 5 сек. и разбросом 20%.
+     */
+    public static BackoffWaitStrategy defaults() {
+        return new BackoffWaitStrategy(50, 5, 200, 5000, 2, 0.2);
+    }
+
+    @Override
+    public long nextDelayMs(int attempt) {
+        if (attempt <= probeAttempts) {
+            return probeDelayMs;
+        }
+        final double exponential = initialDelayMs * Math.pow(multiplier, attempt - probeAttempts - 1);
+        final double delay = Math.min(exponential, maxDelayMs);
+        if (jitter == 0 || delay == 0) {
+            return (long) delay;
+        }
+        final double spread = delay * jitter;
+        return Math.max(0, (long) (delay + ThreadLocalRandom.current().nextDouble(-spread, spread)));
+    }
+}
@@ -0,0 +1,82 @@
+package ru.iopump.jdbi.db.helper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.NonNull;
+import org.apache.commons.lang3.StringUtils;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.SqlStatements;
+
+/**
+ * Уведомления об изменениях таблиц внутри JVM.
+ * <br/>Уведомление должно приходить после фиксации изменения, иначе ожидающий может выполнить выборку раньше,
+ * чем запись станет видна. {@link TableWaiter} делает одну короткую повторную выборку после уведомления,
+ * но источник, уведомляющий до фиксации (например, триггер БД), все равно может привести к ожиданию полной задержки.
+ * <br/>Источники:
+ * <ul>
+ * <li>{@link #install(Jdbi)} - запись через CrudDao / SqlObject этого Jdbi, уведомление после фиксации;</li>
+ * <li>{@link #notifyChange(String)} - из внешнего источника после фиксации, например слушателя LISTEN/NOTIFY PostgreSQL,
+ * который доставляет события только зафиксированных транзакций.</li>
+ * </ul>
+ */
+@SuppressWarnings("WeakerAccess")
+public class InMemoryTableChangeNotifier implements TableChangeNotifier {
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+
+    /**
+     * Уведомлять об изменениях таблиц, сделанных через SqlObject методы {@code @SqlUpdate} / {@code @SqlBatch}
+     * с атрибутом {@code <tableName>} (все методы записи CrudDao) в этом Jdbi.
+     * В режиме auto-commit уведомление отправляется после выполнения запроса, внутри транзакции - после фиксации.
+     * Запросы вне SqlObject (handle.execute и т.п.) не отслеживаются.
+     * Уже настроенные SqlLogger и TransactionHandler продолжают вызываться.
+     */
+    @NonNull
+    public Jdbi install(@NonNull Jdbi jdbi) {
+        final SqlStatements statements = jdbi.getConfig(SqlStatements.class);
+        final TableChangeSqlLogger changes = new TableChangeSqlLogger(this, statements.getSqlLogger());
+        statements.setSqlLogger(changes);
+        jdbi.setTransactionHandler(new TableChangeTransactionHandler(jdbi.getTransactionHandler(), changes));
+        return jdbi;
+    }
+
+    /**
+     * Сообщить об изменении таблицы и разбудить всех, кто ее ожидает.
+     *
+     * @param table Имя таблицы любым регистром.
+     */
+    public void notifyChange(@NonNull String table) {
+        version(table).incrementAndGet();
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+    }
+
+    @Override
+    public long currentVersion(@NonNull String table) {
+        return version(table).get();
+    }
+
+    @Override
+    public boolean awaitChange(@NonNull String table, long sinceVersion, long timeoutMs) throws InterruptedException {
+        final AtomicLong version = version(table);
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        synchronized (lock) {
+            while (version.get() <= sinceVersion) {
+                final long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    return false;
+                }
+                lock.wait(remainingMs);
+            }
+        }
+        return true;
+    }
+
+    private AtomicLong version(String table) {
+        return versions.computeIfAbsent(StringUtils.upperCase(table), t -> new AtomicLong());
+    }
+}
@@ -0,0 +1,295 @@
+package ru.iopump.jdbi.db.helper;
+
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.awaitility.core.ConditionTimeoutException;
+import ru.iopump.jdbi.db.dao.CrudDao;
+import ru.iopump.jdbi.db.dao.DaoConditionChain;
+import ru.iopump.jdbi.db.entity.Entity;
+import ru.iopump.jdbi.db.exception.PredicateNotApplicable;
+
+/**
+ * Общий опрос таблиц для множества одновременных ожиданий.
+ * <br/>Все ожидания по одной таблице обслуживаются одним запросом за цикл: выбираются только новые записи
+ * с ID больше водяной метки (последнего прочитанного ID), и каждое ожидание проверяет их своими условиями в Java
+ * через {@link DaoConditionChain#asPredicate()}. Нагрузка на СУБД - O(таблиц), а не O(ожиданий).
+ * <br/>Записи, существовавшие до регистрации ожидания, выбираются один раз при регистрации.
+ * <br/>Строковые условия ('=', '<>', 'like') зависят от сопоставления СУБД, поэтому в Java новые записи только
+ * фильтруются ({@link DaoConditionChain#asCandidatePredicate()}), и запрос ожидания выполняется лишь в цикле,
+ * где появился подходящий кандидат. Фильтр рассчитан на сопоставления не мягче, чем без учета регистра и диакритики,
+ * см. {@link ru.iopump.jdbi.db.dao.DaoCondition#asCandidatePredicate()}.
+ * <br/>Ограничения: отслеживаются только вставки с возрастающим ID; ожидания с условиями, которые нельзя
+ * проверить в Java (подзапросы, сравнение колонки другого типа), опрашивают СУБД своим запросом на каждом цикле.
+ * <br/>Состояние таблицы без ожиданий удаляется в следующем цикле.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+@Slf4j
+public class SharedTablePoller implements AutoCloseable {
+    private final int pageSize;
+    private final ScheduledExecutorService scheduler;
+    /**
+     * Состояние по экземпляру DAO: классы прокси Jdbi одинаковы для всех Jdbi и баз данных.
+     * DAO сравниваются по ссылке.
+     */
+    private final Map<CrudDao<?, ?>, TableState<?, ?>> tables = new ConcurrentHashMap<>();
+
+    public SharedTablePoller(long pollIntervalMs) {
+        this(pollIntervalMs, CrudDao.DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param pollIntervalMs Задержка между циклами опроса.
+     * @param pageSize       Размер страницы при выборке новых записей.
+     */
+    public SharedTablePoller(long pollIntervalMs, int pageSize) {
+        if (pollIntervalMs <= 0 || pageSize <= 0) {
+            throw new IllegalArgumentException("Задержка и размер страницы должны быть больше 0");
+        }
+        this.pageSize = pageSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("shared-table-poller-%d")
+                .build());
+        this.scheduler.scheduleWithFixedDelay(this::tick, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Зарегистрировать ожидание появления хотя-бы одной записи или определенного числа записей, если count > 0.
+     *
+     * @param dao        DAO для выборки.
+     * @param conditions Условия выборки.
+     * @param count      Ожидаемое кол-во. Если оно <= 0, то ожидается любое кол-во большее 0.
+     * @param timeoutMs  Таймаут ожидания.
+     * @return Future со списком найденных записей,
+     * завершается с {@link ConditionTimeoutException}, если записи не появились в течение таймаута.
+     */
+    public <ENTITY extends Entity<ID>, ID> CompletableFuture<List<ENTITY>> waitRows(@NonNull CrudDao<ENTITY, ID> dao,
+                                                                                  @NonNull DaoConditionChain conditions,
+                                                                                  int count,
+                                                                                  long timeoutMs) {
+        final long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (true) {
+            @SuppressWarnings("unchecked")
+            final TableState<ENTITY, ID> state = (TableState<ENTITY, ID>) tables.computeIfAbsent(dao, k -> new TableState<>(dao));
+            final CompletableFuture<List<ENTITY>> future = state.register(conditions, count, deadlineNanos);
+            // null - состояние удалено циклом опроса между computeIfAbsent и register, нужно новое
+            if (future != null) {
+                return future;
+            }
+        }
+    }
+
+    /**
+     * Остановить опрос и отменить все незавершенные ожидания.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        tables.values().forEach(TableState::cancelAll);
+        tables.clear();
+    }
+
+    /**
+     * Кол-во таблиц с состоянием опроса.
+     */
+    int tableCount() {
+        return tables.size();
+    }
+
+    private void tick() {
+        tables.forEach((dao, state) -> {
+            try {
+                state.poll();
+            } catch (RuntimeException e) {
+                log.warn("Ошибка общего опроса таблицы {}", state.dao.getTableName(), e);
+                state.failAll(e);
+            }
+            if (state.retireIfIdle()) {
+                tables.remove(dao, state);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareIds(@NonNull Object one, @NonNull Object two) {
+        return ((Comparable<Object>) one).compareTo(two);
+    }
+
+    private final class TableState<ENTITY extends Entity<ID>, ID> {
+        private final CrudDao<ENTITY, ID> dao;
+        private final List<Waiter<ENTITY>> waiters = new ArrayList<>();
+        private boolean initialized;
+        private boolean retired;
+        @Nullable
+        private ID watermark;
+
+        private TableState(CrudDao<ENTITY, ID> dao) {
+            this.dao = dao;
+        }
+
+        /**
+         * @return Future ожидания или null, если состояние уже удалено из опроса.
+         */
+        @Nullable
+        private synchronized CompletableFuture<List<ENTITY>> register(DaoConditionChain conditions,
+                                                                      int count,
+                                                                      long deadlineNanos) {
+            if (retired) {
+                return null;
+            }
+            if (!initialized) {
+                watermark = dao.findLast(1).stream().findFirst().map(Entity::id).orElse(null);
+                initialized = true;
+            }
+            final Predicate<Entity<?>> exact = conditions.asPredicate();
+            final Waiter<ENTITY> waiter = exact != null
+                    ? new Waiter<>(conditions, exact, false, count, deadlineNanos)
+                    : new Waiter<>(conditions, conditions.asCandidatePredicate(), true, count, deadlineNanos);
+            if (waiter.predicate != null && !waiter.confirm) {
+                // записи до водяной метки выбираются один раз, новые придут в общем цикле
+                dao.findListByColumnValue(conditions).stream()
+                        .filter(e -> e.id() != null && watermark != null && compareIds(e.id(), watermark) <= 0)
+                        .forEach(waiter.rows::add);
+            } else {
+                waiter.rows.addAll(dao.findListByColumnValue(conditions));
+            }
+            if (waiter.isSatisfied()) {
+                waiter.future.complete(new ArrayList<>(waiter.rows));
+            } else {
+                waiters.add(waiter);
+            }
+            return waiter.future;
+        }
+
+        private synchronized void poll() {
+            if (waiters.isEmpty()) {
+                return;
+            }
+            final List<ENTITY> fresh = waiters.stream().anyMatch(w -> w.predicate != null)
+                    ? fetchFresh()
+                    : new ArrayList<>();
+            final Iterator<Waiter<ENTITY>> iterator = waiters.iterator();
+            while (iterator.hasNext()) {
+                final Waiter<ENTITY> waiter = iterator.next();
+                if (waiter.future.isDone()) {
+                    iterator.remove();
+                    continue;
+                }
+                try {
+                    boolean query = waiter.predicate == null;
+                    if (!query) {
+                        try {
+                            if (waiter.confirm) {
+                                // кандидат может не подойти по сопоставлению СУБД - проверка запросом
+                                query = fresh.stream().anyMatch(waiter.predicate);
+                            } else {
+                                fresh.stream().filter(waiter.predicate).forEach(waiter.rows::add);
+                            }
+                        } catch (PredicateNotApplicable e) {
+                            log.debug("Условия '{}' проверяются запросом: {}", waiter.conditions, e.getMessage());
+                            waiter.predicate = null;
+                            query = true;
+                        }
+                    }
+                    if (query) {
+                        waiter.rows.clear();
+                        waiter.rows.addAll(dao.findListByColumnValue(waiter.conditions));
+                    }
+                    if (waiter.isSatisfied()) {
+                        waiter.future.complete(new ArrayList<>(waiter.rows));
+                        iterator.remove();
+                    } else if (System.nanoTime() - waiter.deadlineNanos > 0) {
+                        waiter.future.completeExceptionally(new ConditionTimeoutException(
+                                format("Ожидание записей в %s по условиям '%s' не завершилось в срок. Ожидается %s, найдено %d",
+                                        dao.getTableName(),
+                                        waiter.conditions,
+                                        waiter.count > 0 ? waiter.count : "> 0",
+                                        waiter.rows.size())));
+                        iterator.remove();
+                    }
+                } catch (RuntimeException e) {
+                    waiter.future.completeExceptionally(e);
+                    iterator.remove();
+                }
+            }
+        }
+
+        private List<ENTITY> fetchFresh() {
+            final List<ENTITY> fresh = new ArrayList<>();
+            List<ENTITY> page;
+            do {
+                page = dao.pageAfter(watermark, pageSize, CrudDao.OrderType.ASC);
+                fresh.addAll(page);
+                if (!page.isEmpty()) {
+                    watermark = page.get(page.size() - 1).id();
+                }
+            } while (page.size() == pageSize);
+            return fresh;
+        }
+
+        /**
+         * Пометить состояние без ожиданий удаленным, после этого регистрация в нем невозможна.
+         */
+        private synchronized boolean retireIfIdle() {
+            if (waiters.isEmpty()) {
+                retired = true;
+            }
+            return retired;
+        }
+
+        private synchronized void failAll(Throwable cause) {
+            waiters.forEach(w -> w.future.completeExceptionally(cause));
+            waiters.clear();
+        }
+
+        private synchronized void cancelAll() {
+            waiters.forEach(w -> w.future.cancel(false));
+            waiters.clear();
+        }
+    }
+
+    private static final class Waiter<ENTITY extends Entity<?>> {
+        private final DaoConditionChain conditions;
+        @Nullable
+        private Predicate<Entity<?>> predicate;
+        /**
+         * predicate - фильтр кандидатов, записи выбираются запросом ожидания.
+         */
+        private final boolean confirm;
+        private final int count;
+        private final long deadlineNanos;
+        private final List<ENTITY> rows = new ArrayList<>();
+        private final CompletableFuture<List<ENTITY>> future = new CompletableFuture<>();
+
+        private Waiter(DaoConditionChain conditions,
+                       @Nullable Predicate<Entity<?>> predicate,
+                       boolean confirm,
+                       int count,
+                       long deadlineNanos) {
+            this.conditions = conditions;
+            this.predicate = predicate;
+            this.confirm = confirm;
+            this.count = count;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        private boolean isSatisfied() {
+            return count > 0 ? rows.size() == count : !rows.isEmpty();
+        }
+    }
+}
@@ -20,6 +20,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.hamcrest.Matcher;
 import ru.iopump.jdbi.cucumber.DbHelper;
 import ru.iopump.jdbi.db.entity.Entity;
+import ru.iopump.jdbi.db.jfr.JfrEvents;
 
 import static com.jcabi.matchers.RegexMatchers.matchesPattern;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -66,10 +67,53 @@ public final class TableAsserts {
                 tableName,
                 "\n" + expectedRowEntries
         );
-        assertThat(message, recordList, not(nullValue()));
-        assertThat(message, recordList, not(empty()));
-        log.debug("[RECORDS] {}", Joiner.on("\n").join(asSetMap(recordList)));
-        assertThat(message, asSetMap(recordList), hasItem(containsAllEntries(expectedRowEntries)));
+        final Object event = JfrEvents.beginTableAssert();
+        boolean passed = false;
+        try {
+            assertThat(message, recordList, not(nullValue()));
+            assertThat(message, recordList, not(empty()));
+            log.debug("[RECORDS] {}", Joiner.on("\n").join(asSetMap(recordList)));
+            assertThat(message, asSetMap(recordList), hasItem(containsAllEntries(expectedRowEntries)));
+            passed = true;
+        } finally {
+            JfrEvents.commitTableAssert(event, tableName, "assertRows", JfrEvents.rows(recordList), passed);
+        }
+    }
+
+    /**
+     * То же, что {@link #assertRows(String, List, Map)}, но для строк из
+     * {@link ru.iopump.jdbi.db.dao.CrudDao#findColumns(Set, ru.iopump.jdbi.db.dao.DaoConditionChain)}.
+     * Выбирай только колонки из expectedRowEntries, чтобы не читать всю запись.
+     *
+     * @param tableName          Имя таблицы.
+     * @param rows               Строки вида [колонка:значение].
+     * @param expectedRowEntries Ожидаемые значения вида [колонка:значение], которые будут содержаться в одной из строк.
+     */
+    public static void assertColumnRows(
+            @NonNull String tableName,
+            @Nullable List<Map<String, Object>> rows,
+            @Nullable Map<String, String> expectedRowEntries
+    ) {
+        if (expectedRowEntries == null || expectedRowEntries.isEmpty()) {
+            return;
+        }
+        val message = format(
+                "В таблице '%s' ожидается запись '%s'",
+                tableName,
+                "\n" + expectedRowEntries
+        );
+        final Object event = JfrEvents.beginTableAssert();
+        boolean passed = false;
+        try {
+            assertThat(message, rows, not(nullValue()));
+            assertThat(message, rows, not(empty()));
+            final Set<Map<String, String>> actual = rows.stream().map(TableAsserts::rowToString).collect(Collectors.toSet());
+            log.debug("[ROWS] {}", Joiner.on("\n").join(actual));
+            assertThat(message, actual, hasItem(containsAllEntries(expectedRowEntries)));
+            passed = true;
+        } finally {
+            JfrEvents.commitTableAssert(event, tableName, "assertColumnRows", JfrEvents.rows(rows), passed);
+        }
     }
 
     /**
@@ -95,9 +139,16 @@ public final class TableAsserts {
                 tableName,
                 "\n" + Objects.toString(expectedRowEntries, "null")
         );
-        assertThat(message, record, not(nullValue()));
-        log.debug("[RECORD] {}", record);
-        assertThat(message, recordToString(record), containsAllEntries(expectedRowEntries));
+        final Object event = JfrEvents.beginTableAssert();
+        boolean passed = false;
+        try {
+            assertThat(message, record, not(nullValue()));
+            log.debug("[RECORD] {}", record);
+            assertThat(message, recordToString(record), containsAllEntries(expectedRowEntries));
+            passed = true;
+        } finally {
+            JfrEvents.commitTableAssert(event, tableName, "assertRow", record == null ? 0 : 1, passed);
+        }
     }
 
     /**
@@ -156,7 +207,11 @@ public final class TableAsserts {
     }
 
     static Map<String, String> recordToString(Entity entity) {
-        return entity.allFields().getSourceMap().entrySet().stream()
+        return rowToString(entity.allFields().getSourceMap());
+    }
+
+    static Map<String, String> rowToString(Map<String, Object> row) {
+        return row.entrySet().stream()
                 .filter(e -> !StringUtils.equalsAnyIgnoreCase(e.getKey(), "envelope"))
                 .collect(Collectors.toMap(
                         Map.Entry::getKey,
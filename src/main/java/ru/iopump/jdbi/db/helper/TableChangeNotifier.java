@@ -0,0 +1,29 @@
+package ru.iopump.jdbi.db.helper;
+
+import lombok.NonNull;
+
+/**
+ * Источник уведомлений об изменении таблиц.
+ * <br/>Позволяет {@link TableWaiter} проснуться сразу после изменения таблицы, не дожидаясь окончания задержки.
+ * <br/>Изменения отслеживаются по версии таблицы: ожидающий запоминает версию до выборки
+ * и после неудачной выборки ждет версию больше запомненной, поэтому уведомления между ними не теряются.
+ */
+public interface TableChangeNotifier {
+
+    /**
+     * Текущая версия таблицы. Увеличивается при каждом уведомлении.
+     *
+     * @param table Имя таблицы любым регистром.
+     */
+    long currentVersion(@NonNull String table);
+
+    /**
+     * Ждать, пока версия таблицы станет больше sinceVersion, но не дольше timeoutMs.
+     *
+     * @param table        Имя таблицы любым регистром.
+     * @param sinceVersion Версия, полученная через {@link #currentVersion(String)} до выборки.
+     * @param timeoutMs    Максимальное время ожидания.
+     * @return true, если таблица изменилась, false - если истек таймаут.
+     */
+    boolean awaitChange(@NonNull String table, long sinceVersion, long timeoutMs) throws InterruptedException;
+}
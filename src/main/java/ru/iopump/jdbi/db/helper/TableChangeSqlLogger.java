@@ -0,0 +1,105 @@
+package ru.iopump.jdbi.db.helper;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import javax.annotation.Nullable;
+
+import lombok.NonNull;
+import org.jdbi.v3.core.extension.ExtensionMethod;
+import org.jdbi.v3.core.statement.SqlLogger;
+import org.jdbi.v3.core.statement.StatementContext;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+
+/**
+ * {@link SqlLogger}, который сообщает {@link InMemoryTableChangeNotifier} об изменении таблицы после фиксации.
+ * <br/>Изменением считается успешный {@link SqlUpdate} / {@link SqlBatch} метод SqlObject с атрибутом {@code <tableName>}.
+ * В режиме auto-commit запрос уже зафиксирован, когда Jdbi вызывает логгер, поэтому уведомление отправляется сразу.
+ * Внутри транзакции таблицы копятся до {@link #committed(Connection)} из {@link TableChangeTransactionHandler}.
+ */
+final class TableChangeSqlLogger implements SqlLogger {
+    private final InMemoryTableChangeNotifier notifier;
+    private final SqlLogger delegate;
+    private final Map<Connection, Set<String>> pending = Collections.synchronizedMap(new WeakHashMap<>());
+
+    TableChangeSqlLogger(@NonNull InMemoryTableChangeNotifier notifier, @Nullable SqlLogger delegate) {
+        this.notifier = notifier;
+        this.delegate = delegate == null ? SqlLogger.NOP_SQL_LOGGER : delegate;
+    }
+
+    @Override
+    public void logBeforeExecution(StatementContext context) {
+        delegate.logBeforeExecution(context);
+    }
+
+    @Override
+    public void logAfterExecution(StatementContext context) {
+        final String table = changedTable(context);
+        if (table != null) {
+            final Connection connection = context.getConnection();
+            if (isAutoCommit(connection)) {
+                notifier.notifyChange(table);
+            } else {
+                pending.computeIfAbsent(connection, c -> new HashSet<>()).add(table);
+            }
+        }
+        delegate.logAfterExecution(context);
+    }
+
+    @Override
+    public void logException(StatementContext context, SQLException ex) {
+        delegate.logException(context, ex);
+    }
+
+    /**
+     * Транзакция зафиксирована: уведомить обо всех измененных в ней таблицах.
+     */
+    void committed(@NonNull Connection connection) {
+        final Set<String> tables = pending.remove(connection);
+        if (tables != null) {
+            tables.forEach(notifier::notifyChange);
+        }
+    }
+
+    /**
+     * Транзакция отменена: изменений нет.
+     */
+    void rolledBack(@NonNull Connection connection) {
+        pending.remove(connection);
+    }
+
+    //region Private
+    @Nullable
+    private static String changedTable(StatementContext context) {
+        final ExtensionMethod extensionMethod = context.getExtensionMethod();
+        final Object table = context.getAttribute("tableName");
+        if (extensionMethod == null || table == null) {
+            return null;
+        }
+        final boolean write = extensionMethod.getMethod().isAnnotationPresent(SqlUpdate.class)
+                || extensionMethod.getMethod().isAnnotationPresent(SqlBatch.class);
+        return write ? unquote(table.toString()) : null;
+    }
+
+    /**
+     * Атрибут может быть экранирован диалектом, уведомления идут по имени таблицы без кавычек.
+     */
+    private static String unquote(String table) {
+        return table.replaceAll("[\"`\\[\\]]", "");
+    }
+
+    private static boolean isAutoCommit(Connection connection) {
+        try {
+            return connection.getAutoCommit();
+        } catch (SQLException e) {
+            // состояние неизвестно - лишнее уведомление безопаснее потерянного
+            return true;
+        }
+    }
+    //endregion
+}
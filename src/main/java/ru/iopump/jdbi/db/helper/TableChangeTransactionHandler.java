@@ -0,0 +1,74 @@
+package ru.iopump.jdbi.db.helper;
+
+import lombok.NonNull;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.HandleCallback;
+import org.jdbi.v3.core.transaction.TransactionHandler;
+import org.jdbi.v3.core.transaction.TransactionIsolationLevel;
+
+/**
+ * {@link TransactionHandler}, который после фиксации транзакции отправляет уведомления об измененных в ней таблицах.
+ * Управление транзакциями остается у исходного обработчика.
+ */
+final class TableChangeTransactionHandler implements TransactionHandler {
+    private final TransactionHandler delegate;
+    private final TableChangeSqlLogger changes;
+
+    TableChangeTransactionHandler(@NonNull TransactionHandler delegate, @NonNull TableChangeSqlLogger changes) {
+        this.delegate = delegate;
+        this.changes = changes;
+    }
+
+    @Override
+    public void begin(Handle handle) {
+        delegate.begin(handle);
+    }
+
+    @Override
+    public void commit(Handle handle) {
+        delegate.commit(handle);
+        changes.committed(handle.getConnection());
+    }
+
+    @Override
+    public void rollback(Handle handle) {
+        try {
+            delegate.rollback(handle);
+        } finally {
+            changes.rolledBack(handle.getConnection());
+        }
+    }
+
+    @Override
+    public boolean isInTransaction(Handle handle) {
+        return delegate.isInTransaction(handle);
+    }
+
+    @Override
+    public void savepoint(Handle handle, String savepointName) {
+        delegate.savepoint(handle, savepointName);
+    }
+
+    @Override
+    public void rollbackToSavepoint(Handle handle, String savepointName) {
+        // измененные до точки сохранения таблицы остаются в ожидании: лишнее уведомление безопаснее потерянного
+        delegate.rollbackToSavepoint(handle, savepointName);
+    }
+
+    @Override
+    public void releaseSavepoint(Handle handle, String savepointName) {
+        delegate.releaseSavepoint(handle, savepointName);
+    }
+
+    @Override
+    public <R, X extends Exception> R inTransaction(Handle handle, HandleCallback<R, X> callback) throws X {
+        return delegate.inTransaction(handle, callback);
+    }
+
+    @Override
+    public <R, X extends Exception> R inTransaction(Handle handle,
+                                                    TransactionIsolationLevel level,
+                                                    HandleCallback<R, X> callback) throws X {
+        return delegate.inTransaction(handle, level, callback);
+    }
+}
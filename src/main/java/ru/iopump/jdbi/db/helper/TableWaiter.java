@@ -2,8 +2,11 @@ package ru.iopump.jdbi.db.helper;
 
 import static java.lang.String.format;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 
@@ -11,21 +14,34 @@ import com.google.common.base.Joiner;
 import ru.iopump.jdbi.db.dao.CrudDao;
 import ru.iopump.jdbi.db.dao.DaoConditionChain;
 import ru.iopump.jdbi.db.entity.Entity;
+import ru.iopump.jdbi.db.jfr.JfrEvents;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.awaitility.Duration;
 import org.awaitility.core.ConditionTimeoutException;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import ru.iopump.jdbi.db.exception.DbException;
 
-import static org.awaitility.Awaitility.await;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.number.OrderingComparison.greaterThan;
 
 @SuppressWarnings({"WeakerAccess", "unused"})
 @Slf4j
 public class TableWaiter {
+    /**
+     * Задержка повторной выборки после уведомления об изменении, которая не нашла ожидаемых записей.
+     */
+    static final long NOTIFY_REPROBE_MS = 100;
+
     private final int timeoutSec;
     private final int pollIntervalMs;
+    private final boolean countPolling;
+    private final WaitStrategy waitStrategy;
+    @Nullable
+    private final TableChangeNotifier changeNotifier;
+    @Nullable
+    private final SharedTablePoller sharedPoller;
 
     //region Constructors
     public TableWaiter() {
@@ -38,9 +54,70 @@ public class TableWaiter {
 
     public TableWaiter(int timeoutSec,
                        int pollIntervalMs) {
+        this(timeoutSec, pollIntervalMs, false, null, null, null);
+    }
+
+    private TableWaiter(int timeoutSec,
+                        int pollIntervalMs,
+                        boolean countPolling,
+                        @Nullable WaitStrategy waitStrategy,
+                        @Nullable TableChangeNotifier changeNotifier,
+                        @Nullable SharedTablePoller sharedPoller) {
         this.timeoutSec = timeoutSec;
         // если таймаут больше чем задержка между циклами, то ок, если нет, то задержка выбирается = таймауту
         this.pollIntervalMs = timeoutSec * 1000 > pollIntervalMs ? pollIntervalMs : timeoutSec * 1000 - 1;
+        this.countPolling = countPolling;
+        this.waitStrategy = waitStrategy == null ? WaitStrategy.fixed(this.pollIntervalMs) : waitStrategy;
+        this.changeNotifier = changeNotifier;
+        this.sharedPoller = sharedPoller;
+    }
+
+    /**
+     * Копия с режимом опроса по кол-ву записей для методов с {@link CrudDao}.
+     * В этом режиме на каждом цикле выполняется только {@link CrudDao#count(DaoConditionChain)},
+     * а сами записи выбираются один раз, когда кол-во достигло ожидаемого.
+     *
+     * @param countPolling Включить опрос по кол-ву.
+     * @return Новый {@link TableWaiter} с теми же таймаутами.
+     */
+    public TableWaiter withCountPolling(boolean countPolling) {
+        return new TableWaiter(timeoutSec, pollIntervalMs, countPolling, waitStrategy, changeNotifier, sharedPoller);
+    }
+
+    /**
+     * Копия с другой стратегией задержки между попытками, например {@link BackoffWaitStrategy}.
+     * По умолчанию используется постоянная задержка pollIntervalMs.
+     *
+     * @param waitStrategy Стратегия задержки.
+     * @return Новый {@link TableWaiter} с теми же таймаутами.
+     */
+    public TableWaiter withWaitStrategy(@NonNull WaitStrategy waitStrategy) {
+        return new TableWaiter(timeoutSec, pollIntervalMs, countPolling, waitStrategy, changeNotifier, sharedPoller);
+    }
+
+    /**
+     * Копия с источником уведомлений об изменениях таблиц.
+     * Задержка между попытками прерывается сразу после уведомления об изменении ожидаемой таблицы.
+     * Если выборка после уведомления ничего не нашла, то следующая выполняется через {@value #NOTIFY_REPROBE_MS} мс,
+     * на случай уведомления до фиксации изменения.
+     *
+     * @param changeNotifier Источник уведомлений.
+     * @return Новый {@link TableWaiter} с теми же таймаутами.
+     */
+    public TableWaiter withChangeNotifier(@Nullable TableChangeNotifier changeNotifier) {
+        return new TableWaiter(timeoutSec, pollIntervalMs, countPolling, waitStrategy, changeNotifier, sharedPoller);
+    }
+
+    /**
+     * Копия, которая выполняет ожидания с {@link CrudDao} через общий опрос таблиц.
+     * Все ожидания по одной таблице, переданные в один {@link SharedTablePoller}, обслуживаются одним запросом за цикл.
+     * Задержку между циклами определяет сам {@link SharedTablePoller}.
+     *
+     * @param sharedPoller Общий опрос таблиц.
+     * @return Новый {@link TableWaiter} с теми же таймаутами.
+     */
+    public TableWaiter withSharedPoller(@Nullable SharedTablePoller sharedPoller) {
+        return new TableWaiter(timeoutSec, pollIntervalMs, countPolling, waitStrategy, changeNotifier, sharedPoller);
     }
     //endregion
 
@@ -67,12 +144,7 @@ public class TableWaiter {
         } else {
             msg = format("Ожидание хотя бы одной записи в %s в течение %d сек.", table, timeoutSec);
         }
-        final List<ENTITY> logRows = await(msg)
-                .pollInSameThread()
-                .pollInterval(pollIntervalMs, TimeUnit.MILLISECONDS)
-                .pollDelay(Duration.ZERO)
-                .timeout(timeoutSec, TimeUnit.SECONDS)
-                .until(fetchEntity, count > 0 ? hasSize(count) : hasSize(greaterThan(0)));
+        final List<ENTITY> logRows = poll(msg, table, fetchEntity, count > 0 ? hasSize(count) : hasSize(greaterThan(0)));
         log.debug("{}", Joiner.on("\n").join(logRows));
         return logRows;
     }
@@ -91,13 +163,18 @@ public class TableWaiter {
                                                                  @NonNull DaoConditionChain conditions,
                                                                  int count) {
 
-        return waitRows(dao.getTableName(), () -> dao.findListByColumnValue(conditions), count,
-                format("Ожидание хотя бы одной записи в %s в течение %d сек. по условиям '%s'",
-                        dao.getTableName(),
-                        timeoutSec,
-                        conditions.toString()
-                )
+        final String msg = format("Ожидание хотя бы одной записи в %s в течение %d сек. по условиям '%s'",
+                dao.getTableName(),
+                timeoutSec,
+                conditions.toString()
         );
+        if (sharedPoller != null) {
+            final List<ENTITY> logRows = getShared(msg,
+                    sharedPoller.waitRows(dao, conditions, count, TimeUnit.SECONDS.toMillis(timeoutSec)));
+            log.debug("{}", Joiner.on("\n").join(logRows));
+            return logRows;
+        }
+        return waitRows(dao.getTableName(), fetcher(dao, conditions, count), count, msg);
     }
     //endregion
 
@@ -146,15 +223,111 @@ public class TableWaiter {
     public <ENTITY extends Entity<ID>, ID> void waitRowsAsserted(@NonNull CrudDao<ENTITY, ID> dao,
                                                                  @NonNull DaoConditionChain conditions,
                                                                  int expectedCount) {
-        waitRowsAsserted(dao.getTableName(),
-                () -> dao.findListByColumnValue(conditions),
-                expectedCount,
-                format("В таблице %s не найдено записей в кол-ве %d в течении %d сек. по условиям '%s'",
-                        dao.getTableName(),
-                        expectedCount,
-                        timeoutSec,
-                        conditions.toString())
-        );
+        try {
+            waitRows(dao, conditions, expectedCount);
+        } catch (ConditionTimeoutException ex) {
+            throw new AssertionError(format("В таблице %s не найдено записей в кол-ве %d в течении %d сек. по условиям '%s'",
+                    dao.getTableName(),
+                    expectedCount,
+                    timeoutSec,
+                    conditions.toString()), ex);
+        }
+    }
+    //endregion
+
+    //region Private
+
+    /**
+     * Опрашивать supplier в текущем потоке, пока результат не удовлетворит matcher или не истечет таймаут.
+     * Первая попытка выполняется сразу, задержки между попытками определяет {@link #waitStrategy}.
+     */
+    private <T> T poll(@NonNull String message,
+                       @NonNull String table,
+                       @NonNull Callable<T> supplier,
+                       @NonNull Matcher<? super T> matcher) {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSec);
+        int attempt = 0;
+        boolean notified = false;
+        while (true) {
+            attempt++;
+            final Object event = JfrEvents.beginTableWait();
+            T result = null;
+            long sleptMs = 0;
+            try {
+                final long version = changeNotifier == null ? 0 : changeNotifier.currentVersion(table);
+                result = call(supplier);
+                if (matcher.matches(result)) {
+                    return result;
+                }
+                final long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    throw new ConditionTimeoutException(format("%s. Ожидается %s, но было %s после %d попыток",
+                            message,
+                            StringDescription.toString(matcher),
+                            result,
+                            attempt));
+                }
+                // уведомление могло прийти до фиксации изменения: одна короткая повторная выборка вместо полной задержки
+                final long nextDelayMs = waitStrategy.nextDelayMs(attempt);
+                final long delayMs = Math.min(notified ? Math.min(NOTIFY_REPROBE_MS, nextDelayMs) : nextDelayMs, remainingMs);
+                final long sleepStart = System.nanoTime();
+                try {
+                    if (changeNotifier == null) {
+                        Thread.sleep(delayMs);
+                    } else {
+                        notified = changeNotifier.awaitChange(table, version, delayMs) && !notified;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new DbException(format("%s. Ожидание прервано", message), e);
+                } finally {
+                    // фактическая задержка: ожидание уведомления может закончиться раньше
+                    sleptMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sleepStart);
+                }
+            } finally {
+                JfrEvents.commitTableWait(event, table, attempt, JfrEvents.rows(result), sleptMs);
+            }
+        }
+    }
+
+    private static <T> T getShared(@NonNull String message, @NonNull CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new DbException(format("%s. Ожидание прервано", message), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new DbException(message, e.getCause());
+        }
+    }
+
+    private static <T> T call(@NonNull Callable<T> supplier) {
+        try {
+            return supplier.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DbException(e);
+        }
+    }
+
+    private <ENTITY extends Entity<ID>, ID> Callable<List<ENTITY>> fetcher(@NonNull CrudDao<ENTITY, ID> dao,
+                                                                           @NonNull DaoConditionChain conditions,
+                                                                           int count) {
+        if (!countPolling) {
+            return () -> dao.findListByColumnValue(conditions);
+        }
+        return () -> {
+            final long actual = dao.count(conditions);
+            if (count > 0 ? actual == count : actual > 0) {
+                return dao.findListByColumnValue(conditions);
+            }
+            return Collections.emptyList();
+        };
     }
     //endregion
 }
\ No newline at end of file
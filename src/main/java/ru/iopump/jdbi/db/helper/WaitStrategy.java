@@ -0,0 +1,40 @@
+package ru.iopump.jdbi.db.helper;
+
+/**
+ * Стратегия задержки между попытками опроса таблицы в {@link TableWaiter}.
+ */
+@FunctionalInterface
+public interface WaitStrategy {
+
+    /**
+     * Задержка перед следующей попыткой.
+     *
+     * @param attempt Номер выполненной попытки, начиная с 1.
+     * @return Задержка в мс.
+     */
+    long nextDelayMs(int attempt);
+
+    /**
+     * Постоянная задержка.
+     */
+    static WaitStrategy fixed(long delayMs) {
+        if (delayMs < 0) {
+            throw new IllegalArgumentException("Задержка не может быть отрицательной: " + delayMs);
+        }
+        return attempt -> delayMs;
+    }
+
+    /**
+     * Экспоненциальная задержка со случайным разбросом и быстрой начальной фазой.
+     *
+     * @see BackoffWaitStrategy
+     */
+    static WaitStrategy backoff(long probeDelayMs,
+                                int probeAttempts,
+                                long initialDelayMs,
+                                long maxDelayMs,
+                                double multiplier,
+                                double jitter) {
+        return new BackoffWaitStrategy(probeDelayMs, probeAttempts, initialDelayMs, maxDelayMs, multiplier, jitter);
+    }
+}
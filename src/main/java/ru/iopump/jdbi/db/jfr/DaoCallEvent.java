@@ -0,0 +1,28 @@
+package ru.iopump.jdbi.db.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Операция DAO или sql запрос вне операции DAO, см. {@link JfrEvents#install(org.jdbi.v3.core.Jdbi)}.
+ */
+@Name("ru.iopump.jdbi.DaoCall")
+@Label("DAO Call")
+@Category({"JDBI CRUD"})
+@Description("CrudDao operation or SQL statement outside of it")
+class DaoCallEvent extends Event {
+    @Label("Table")
+    String table;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Error")
+    boolean error;
+}
@@ -0,0 +1,150 @@
+package ru.iopump.jdbi.db.jfr;
+
+import java.util.Collection;
+import javax.annotation.Nullable;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.SqlStatements;
+import org.jdbi.v3.sqlobject.HandlerDecorators;
+
+/**
+ * События Java Flight Recorder для вызовов DAO, ожидания записей и ассертов таблиц.
+ * <br/>Если в JVM нет JFR API (jdk.jfr, Java 8 до 8u262), все методы ничего не делают и классы событий не загружаются.
+ * Если JFR есть, но запись событий выключена, begin* возвращает null без замера времени.
+ * <br/>Использование: {@code event = begin*()} до операции и {@code commit*(event, ..)} после, в том же потоке.
+ * События вызовов DAO записываются для каждой операции DAO после {@link #install(Jdbi)}.
+ */
+@UtilityClass
+public class JfrEvents {
+    private final boolean AVAILABLE = isClassPresent("jdk.jfr.Event");
+
+    /**
+     * JFR API доступно в текущей JVM.
+     */
+    public boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * Подключить к Jdbi запись событий вызовов DAO.
+     * <br/>Каждая операция SqlObject DAO (внешний вызов метода, например findOne) - одно событие с таблицей,
+     * именем метода и числом строк. Подключать до создания DAO: Jdbi кэширует обработчики методов.
+     * <br/>Sql запросы вне операций DAO (через Handle) - событие на каждый запрос с числом строк -1.
+     * Уже настроенный SqlLogger продолжает вызываться. Если JFR недоступен, то Jdbi не меняется.
+     */
+    @NonNull
+    public Jdbi install(@NonNull Jdbi jdbi) {
+        if (!AVAILABLE) {
+            return jdbi;
+        }
+        jdbi.getConfig(HandlerDecorators.class).register(new JfrHandlerDecorator());
+        final SqlStatements statements = jdbi.getConfig(SqlStatements.class);
+        statements.setSqlLogger(new JfrSqlLogger(statements.getSqlLogger()));
+        return jdbi;
+    }
+
+    /**
+     * Начать событие вызова метода DAO.
+     *
+     * @return Событие или null, если JFR недоступен или событие выключено.
+     */
+    @Nullable
+    public Object beginDaoCall() {
+        return AVAILABLE ? JfrRecorder.beginDaoCall() : null;
+    }
+
+    /**
+     * Завершить событие вызова метода DAO.
+     *
+     * @param event     Результат {@link #beginDaoCall()}.
+     * @param table     Таблица.
+     * @param operation Метод DAO.
+     * @param rows      Прочитанные или измененные строки, -1 если неизвестно.
+     * @param error     Вызов завершился исключением.
+     */
+    public void commitDaoCall(@Nullable Object event,
+                              @Nullable String table,
+                              @NonNull String operation,
+                              long rows,
+                              boolean error) {
+        if (event != null) {
+            JfrRecorder.commitDaoCall(event, table, operation, rows, error);
+        }
+    }
+
+    /**
+     * Начать событие одного цикла опроса таблицы (запрос и задержка до следующей попытки).
+     */
+    @Nullable
+    public Object beginTableWait() {
+        return AVAILABLE ? JfrRecorder.beginTableWait() : null;
+    }
+
+    /**
+     * Завершить событие цикла опроса таблицы.
+     *
+     * @param event    Результат {@link #beginTableWait()}.
+     * @param table    Таблица.
+     * @param attempt  Номер попытки с 1.
+     * @param rowsSeen Полученные строки, см. {@link #rows(Object)}.
+     * @param sleepMs  Фактическая задержка после попытки, 0 для последней.
+     */
+    public void commitTableWait(@Nullable Object event, @Nullable String table, int attempt, long rowsSeen, long sleepMs) {
+        if (event != null) {
+            JfrRecorder.commitTableWait(event, table, attempt, rowsSeen, sleepMs);
+        }
+    }
+
+    /**
+     * Начать событие ассерта таблицы.
+     */
+    @Nullable
+    public Object beginTableAssert() {
+        return AVAILABLE ? JfrRecorder.beginTableAssert() : null;
+    }
+
+    /**
+     * Завершить событие ассерта таблицы.
+     *
+     * @param event        Результат {@link #beginTableAssert()}.
+     * @param table        Таблица.
+     * @param assertion    Метод ассерта.
+     * @param rowsCompared Число проверенных записей.
+     * @param passed       Ассерт выполнен успешно.
+     */
+    public void commitTableAssert(@Nullable Object event,
+                                  @Nullable String table,
+                                  @NonNull String assertion,
+                                  long rowsCompared,
+                                  boolean passed) {
+        if (event != null) {
+            JfrRecorder.commitTableAssert(event, table, assertion, rowsCompared, passed);
+        }
+    }
+
+    /**
+     * Число строк в результате: размер коллекции, значение числа (count) или -1.
+     */
+    public long rows(@Nullable Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Number) {
+            return ((Number) result).longValue();
+        }
+        return -1;
+    }
+
+    //region Private
+    private boolean isClassPresent(String className) {
+        try {
+            Class.forName(className, false, JfrEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+    //endregion
+}
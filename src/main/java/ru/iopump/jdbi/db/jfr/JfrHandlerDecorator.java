@@ -0,0 +1,79 @@
+package ru.iopump.jdbi.db.jfr;
+
+import java.lang.reflect.Method;
+import javax.annotation.Nullable;
+
+import org.jdbi.v3.sqlobject.Handler;
+import org.jdbi.v3.sqlobject.HandlerDecorator;
+import ru.iopump.jdbi.db.dao.CrudDao;
+import ru.iopump.jdbi.db.metrics.DaoMetrics;
+
+/**
+ * Декоратор методов SqlObject, который записывает событие JFR на каждую операцию DAO.
+ * <br/>Операция - внешний вызов метода DAO (например findOne), вложенные вызовы внутри него
+ * (другие default методы, internal* запросы) отдельных событий не создают.
+ * Строки считаются по {@link DaoMetrics#rows(Method, Object[], Object, boolean)}.
+ * Методы доступа без параметров (getTableName, getHandle и т.п.) не записываются.
+ */
+final class JfrHandlerDecorator implements HandlerDecorator {
+    /**
+     * Глубина вызовов методов DAO в текущем потоке.
+     */
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public Handler decorateHandler(Handler base, Class<?> sqlObjectType, Method method) {
+        if (method.getParameterCount() == 0 && method.getName().startsWith("get")) {
+            return base;
+        }
+        return (target, args, handle) -> {
+            final int[] depth = DEPTH.get();
+            if (depth[0] > 0) {
+                depth[0]++;
+                try {
+                    return base.invoke(target, args, handle);
+                } finally {
+                    depth[0]--;
+                }
+            }
+            final Object event = JfrEvents.beginDaoCall();
+            depth[0]++;
+            boolean error = true;
+            Object result = null;
+            try {
+                result = base.invoke(target, args, handle);
+                error = false;
+                return result;
+            } finally {
+                try {
+                    JfrEvents.commitDaoCall(event,
+                            event == null ? null : tableName(target),
+                            method.getName(),
+                            DaoMetrics.rows(method, args, result, error),
+                            error);
+                } finally {
+                    depth[0]--;
+                }
+            }
+        };
+    }
+
+    /**
+     * Выполняется ли в текущем потоке операция DAO, для которой уже записывается событие.
+     */
+    static boolean inDaoCall() {
+        return DEPTH.get()[0] > 0;
+    }
+
+    @Nullable
+    private static String tableName(Object target) {
+        if (!(target instanceof CrudDao)) {
+            return null;
+        }
+        try {
+            return ((CrudDao<?, ?>) target).getTableName();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
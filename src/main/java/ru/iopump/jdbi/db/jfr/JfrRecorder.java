@@ -0,0 +1,79 @@
+package ru.iopump.jdbi.db.jfr;
+
+import javax.annotation.Nullable;
+
+/**
+ * Работа с классами событий JFR. Загружается только из {@link JfrEvents}, когда JFR API доступно.
+ */
+final class JfrRecorder {
+
+    private JfrRecorder() {
+        throw new UnsupportedOperationException("Static class");
+    }
+
+    @Nullable
+    static Object beginDaoCall() {
+        final DaoCallEvent event = new DaoCallEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void commitDaoCall(Object e, @Nullable String table, String operation, long rows, boolean error) {
+        final DaoCallEvent event = (DaoCallEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.table = table;
+            event.operation = operation;
+            event.rows = rows;
+            event.error = error;
+            event.commit();
+        }
+    }
+
+    @Nullable
+    static Object beginTableWait() {
+        final TableWaitEvent event = new TableWaitEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void commitTableWait(Object e, @Nullable String table, int attempt, long rowsSeen, long sleepMs) {
+        final TableWaitEvent event = (TableWaitEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.table = table;
+            event.attempt = attempt;
+            event.rowsSeen = rowsSeen;
+            event.sleepMs = sleepMs;
+            event.commit();
+        }
+    }
+
+    @Nullable
+    static Object beginTableAssert() {
+        final TableAssertEvent event = new TableAssertEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void commitTableAssert(Object e, @Nullable String table, String assertion, long rowsCompared, boolean passed) {
+        final TableAssertEvent event = (TableAssertEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.table = table;
+            event.assertion = assertion;
+            event.rowsCompared = rowsCompared;
+            event.passed = passed;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ru.iopump.jdbi.db.jfr;
+
+import java.sql.SQLException;
+import javax.annotation.Nullable;
+
+import lombok.NonNull;
+import org.jdbi.v3.core.extension.ExtensionMethod;
+import org.jdbi.v3.core.statement.SqlLogger;
+import org.jdbi.v3.core.statement.StatementContext;
+
+/**
+ * {@link SqlLogger}, который записывает как событие JFR вызова DAO каждый sql запрос вне операции DAO,
+ * уже записываемой {@link JfrHandlerDecorator}: запросы через Handle и SqlObject, созданные до подключения декоратора.
+ * Таблица берется из атрибута шаблона {@code <tableName>}, операция - имя метода SqlObject
+ * или {@value #RAW_SQL} для запросов вне SqlObject.
+ * Число строк на этапе выполнения запроса неизвестно и записывается как -1.
+ */
+final class JfrSqlLogger implements SqlLogger {
+    static final String RAW_SQL = "sql";
+
+    /**
+     * Событие выполняемого запроса. Jdbi вызывает методы логгера в потоке, выполняющем запрос.
+     */
+    private final ThreadLocal<Object> currentEvent = new ThreadLocal<>();
+    private final SqlLogger delegate;
+
+    JfrSqlLogger(@Nullable SqlLogger delegate) {
+        this.delegate = delegate == null ? SqlLogger.NOP_SQL_LOGGER : delegate;
+    }
+
+    @Override
+    public void logBeforeExecution(StatementContext context) {
+        final Object event = JfrHandlerDecorator.inDaoCall() ? null : JfrEvents.beginDaoCall();
+        if (event == null) {
+            currentEvent.remove();
+        } else {
+            currentEvent.set(event);
+        }
+        delegate.logBeforeExecution(context);
+    }
+
+    @Override
+    public void logAfterExecution(StatementContext context) {
+        commit(context, false);
+        delegate.logAfterExecution(context);
+    }
+
+    @Override
+    public void logException(StatementContext context, SQLException ex) {
+        commit(context, true);
+        delegate.logException(context, ex);
+    }
+
+    //region Private
+    private void commit(@NonNull StatementContext context, boolean error) {
+        final Object event = currentEvent.get();
+        if (event == null) {
+            return;
+        }
+        currentEvent.remove();
+        final Object table = context.getAttribute("tableName");
+        JfrEvents.commitDaoCall(event, table == null ? null : table.toString(), operation(context), -1, error);
+    }
+
+    private static String operation(StatementContext context) {
+        final ExtensionMethod extensionMethod = context.getExtensionMethod();
+        return extensionMethod == null ? RAW_SQL : extensionMethod.getMethod().getName();
+    }
+    //endregion
+}
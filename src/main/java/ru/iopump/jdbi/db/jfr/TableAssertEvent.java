@@ -0,0 +1,28 @@
+package ru.iopump.jdbi.db.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Ассерт записей таблицы.
+ */
+@Name("ru.iopump.jdbi.TableAssert")
+@Label("Table Assert")
+@Category({"JDBI CRUD"})
+@Description("TableAsserts assertion")
+class TableAssertEvent extends Event {
+    @Label("Table")
+    String table;
+
+    @Label("Assertion")
+    String assertion;
+
+    @Label("Rows Compared")
+    long rowsCompared;
+
+    @Label("Passed")
+    boolean passed;
+}
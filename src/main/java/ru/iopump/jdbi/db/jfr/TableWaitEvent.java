@@ -0,0 +1,30 @@
+package ru.iopump.jdbi.db.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Один цикл опроса таблицы в ожидании записей: запрос и задержка до следующей попытки.
+ */
+@Name("ru.iopump.jdbi.TableWait")
+@Label("Table Wait Poll")
+@Category({"JDBI CRUD"})
+@Description("TableWaiter poll cycle")
+class TableWaitEvent extends Event {
+    @Label("Table")
+    String table;
+
+    @Label("Attempt")
+    int attempt;
+
+    @Label("Rows Seen")
+    long rowsSeen;
+
+    @Label("Sleep")
+    @Timespan(Timespan.MILLISECONDS)
+    long sleepMs;
+}
@@ -0,0 +1,217 @@
+package ru.iopump.jdbi.db.metrics;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.SqlStatements;
+import ru.iopump.jdbi.db.dao.CrudDao;
+
+/**
+ * Метрики DAO: задержка (гистограмма с перцентилями), число строк и ошибок по паре (таблица, операция).
+ * <br/>Источники:
+ * <br/>- {@link #wrap(Class, CrudDao)} - прокси DAO, операция = метод {@link CrudDao}, строки = размер результата
+ * или число измененных строк;
+ * <br/>- {@link #install(Jdbi)} - {@link org.jdbi.v3.core.statement.SqlLogger} Jdbi, операция = метод InternalCrudDao
+ * (т.е. каждый sql запрос), строки не считаются.
+ * <br/>Снимки доступны через {@link #snapshot()}, выгрузка через {@link MetricsExporter}.
+ */
+@Slf4j
+public class DaoMetrics {
+    private static final DaoMetrics GLOBAL = new DaoMetrics();
+    static final String UNKNOWN_TABLE = "unknown";
+
+    private final ConcurrentMap<OperationKey, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+    /**
+     * Общий реестр метрик.
+     */
+    public static DaoMetrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Записать одно выполнение операции.
+     *
+     * @param table     Таблица.
+     * @param operation Операция, обычно имя метода DAO.
+     * @param nanos     Время выполнения.
+     * @param rows      Число прочитанных или измененных строк.
+     * @param error     Операция завершилась исключением.
+     */
+    public void record(@Nullable String table, @NonNull String operation, long nanos, long rows, boolean error) {
+        operations.computeIfAbsent(new OperationKey(normalizeTable(table), operation), key -> new OperationMetrics())
+                .record(nanos, rows, error);
+    }
+
+    /**
+     * Снимки всех операций, упорядочены по таблице и операции.
+     */
+    @NonNull
+    public List<OperationSnapshot> snapshot() {
+        return operations.entrySet().stream()
+                .map(e -> e.getValue().snapshot(e.getKey()))
+                .sorted(Comparator.comparing(OperationSnapshot::getTable).thenComparing(OperationSnapshot::getOperation))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Снимок одной операции.
+     */
+    @NonNull
+    public Optional<OperationSnapshot> snapshot(@Nullable String table, @NonNull String operation) {
+        final OperationKey key = new OperationKey(normalizeTable(table), operation);
+        return Optional.ofNullable(operations.get(key)).map(metrics -> metrics.snapshot(key));
+    }
+
+    /**
+     * Удалить все накопленные метрики.
+     */
+    public void reset() {
+        operations.clear();
+    }
+
+    /**
+     * Выгрузить текущие снимки.
+     */
+    public void export(@NonNull MetricsExporter exporter) {
+        exporter.export(snapshot());
+    }
+
+    /**
+     * Периодически выгружать снимки. Ошибки экспорта логируются и не прерывают расписание.
+     *
+     * @return Задача, отмена которой останавливает выгрузку.
+     */
+    @NonNull
+    public ScheduledFuture<?> scheduleExport(@NonNull MetricsExporter exporter,
+                                             @NonNull ScheduledExecutorService executor,
+                                             long period,
+                                             @NonNull TimeUnit unit) {
+        return executor.scheduleAtFixedRate(() -> {
+            try {
+                export(exporter);
+            } catch (RuntimeException e) {
+                log.warn("[DAO METRICS] Ошибка экспорта метрик", e);
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Подключить метрики sql запросов к Jdbi. Уже настроенный SqlLogger продолжает вызываться.
+     */
+    @NonNull
+    public Jdbi install(@NonNull Jdbi jdbi) {
+        final SqlStatements statements = jdbi.getConfig(SqlStatements.class);
+        statements.setSqlLogger(new MetricsSqlLogger(this, statements.getSqlLogger()));
+        return jdbi;
+    }
+
+    /**
+     * Обернуть DAO в прокси, который записывает метрики каждого вызова.
+     *
+     * @param daoType Интерфейс DAO.
+     * @param dao     DAO, например из {@code jdbi.onDemand(..)}.
+     */
+    @NonNull
+    public <DAO extends CrudDao> DAO wrap(@NonNull Class<DAO> daoType, @NonNull DAO dao) {
+        //noinspection unchecked
+        return (DAO) Proxy.newProxyInstance(daoType.getClassLoader(),
+                new Class[]{daoType},
+                new MeteredDaoHandler(dao, this));
+    }
+
+    /**
+     * Проверить, что DAO обернут в метрики.
+     */
+    public static boolean isMetered(@NonNull Object dao) {
+        return Proxy.isProxyClass(dao.getClass()) && Proxy.getInvocationHandler(dao) instanceof MeteredDaoHandler;
+    }
+
+    /**
+     * Прочитанные строки - размер результата, измененные - результат int / int[] (JDBC update count).
+     * Методы записи сущностей не возвращают число строк, для них это число записанных сущностей:
+     * 1 для insert / update / blindUpdate / upsert и размер коллекции для insertAll / upsertAll.
+     * При ошибке записи - 0.
+     *
+     * @param method Вызванный метод DAO.
+     * @param args   Аргументы вызова.
+     * @param result Результат вызова, null при ошибке.
+     * @param error  Вызов завершился исключением.
+     */
+    public static long rows(@NonNull Method method, @Nullable Object[] args, @Nullable Object result, boolean error) {
+        switch (method.getName()) {
+            case "insert":
+            case "update":
+            case "blindUpdate":
+            case "upsert":
+                return error ? 0 : 1;
+            case "insertAll":
+            case "upsertAll":
+                return error || args == null || !(args[0] instanceof Collection) ? 0 : ((Collection<?>) args[0]).size();
+            default:
+                break;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Map) {
+            return ((Map<?, ?>) result).size();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result instanceof int[]) {
+            long sum = 0;
+            for (int count : (int[]) result) {
+                sum += Math.max(0, count);
+            }
+            return sum;
+        }
+        if (method.getReturnType() == int.class && result instanceof Integer) {
+            return Math.max(0, (Integer) result);
+        }
+        return 0;
+    }
+
+    //region Private
+    static String normalizeTable(@Nullable String table) {
+        final String unquoted = StringUtils.replaceChars(table, "\"`[]", null);
+        return StringUtils.isBlank(unquoted) ? UNKNOWN_TABLE : unquoted.toLowerCase();
+    }
+
+    private static final class OperationMetrics {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        void record(long nanos, long rowCount, boolean error) {
+            histogram.record(nanos);
+            rows.add(rowCount);
+            if (error) {
+                errors.increment();
+            }
+        }
+
+        OperationSnapshot snapshot(OperationKey key) {
+            return OperationSnapshot.of(key, histogram.snapshot(), errors.sum(), rows.sum());
+        }
+    }
+    //endregion
+}
@@ -0,0 +1,72 @@
+package ru.iopump.jdbi.db.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import ru.iopump.jdbi.db.dao.CrudDao;
+
+/**
+ * Обработчик прокси {@link DaoMetrics#wrap(Class, CrudDao)}.
+ * Каждый вызов метода DAO записывается как операция с именем метода.
+ * События JFR пишутся на уровне Jdbi, см. {@link ru.iopump.jdbi.db.jfr.JfrEvents#install(org.jdbi.v3.core.Jdbi)}.
+ */
+final class MeteredDaoHandler implements InvocationHandler {
+    private final CrudDao<?, ?> delegate;
+    private final DaoMetrics metrics;
+    private volatile String tableName;
+
+    MeteredDaoHandler(CrudDao<?, ?> delegate, DaoMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return "Metered" + delegate;
+            }
+        }
+        final String name = method.getName();
+        if (name.equals("getTableName") || name.equals("getIdColumnName") || name.equals("getHandle")) {
+            return call(method, args);
+        }
+        final long start = System.nanoTime();
+        boolean error = true;
+        Object result = null;
+        try {
+            result = call(method, args);
+            error = false;
+            return result;
+        } finally {
+            final long elapsed = System.nanoTime() - start;
+            final long rows = DaoMetrics.rows(method, args, result, error);
+            metrics.record(tableName(), name, elapsed, rows, error);
+        }
+    }
+
+    //region Private
+    private String tableName() {
+        String result = tableName;
+        if (result == null) {
+            result = delegate.getTableName();
+            tableName = result;
+        }
+        return result;
+    }
+
+    private Object call(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+    //endregion
+}
@@ -0,0 +1,17 @@
+package ru.iopump.jdbi.db.metrics;
+
+import java.util.List;
+
+import lombok.NonNull;
+
+/**
+ * Экспорт снимков метрик во внешнюю систему (лог, Prometheus, Graphite и т.д.).
+ */
+@FunctionalInterface
+public interface MetricsExporter {
+
+    /**
+     * @param snapshots Снимки всех операций на момент экспорта.
+     */
+    void export(@NonNull List<OperationSnapshot> snapshots);
+}
@@ -0,0 +1,59 @@
+package ru.iopump.jdbi.db.metrics;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import javax.annotation.Nullable;
+
+import lombok.NonNull;
+import org.jdbi.v3.core.extension.ExtensionMethod;
+import org.jdbi.v3.core.statement.SqlLogger;
+import org.jdbi.v3.core.statement.StatementContext;
+
+/**
+ * {@link SqlLogger}, который записывает время каждого sql запроса в {@link DaoMetrics}.
+ * Таблица берется из атрибута шаблона {@code <tableName>}, операция - имя метода SqlObject
+ * или {@value #RAW_SQL} для запросов вне SqlObject. Время считается по моментам {@link StatementContext}.
+ */
+final class MetricsSqlLogger implements SqlLogger {
+    static final String RAW_SQL = "sql";
+
+    private final DaoMetrics metrics;
+    private final SqlLogger delegate;
+
+    MetricsSqlLogger(@NonNull DaoMetrics metrics, @Nullable SqlLogger delegate) {
+        this.metrics = metrics;
+        this.delegate = delegate == null ? SqlLogger.NOP_SQL_LOGGER : delegate;
+    }
+
+    @Override
+    public void logBeforeExecution(StatementContext context) {
+        delegate.logBeforeExecution(context);
+    }
+
+    @Override
+    public void logAfterExecution(StatementContext context) {
+        record(context, context.getCompletionMoment(), false);
+        delegate.logAfterExecution(context);
+    }
+
+    @Override
+    public void logException(StatementContext context, SQLException ex) {
+        record(context, context.getExceptionMoment(), true);
+        delegate.logException(context, ex);
+    }
+
+    //region Private
+    private void record(StatementContext context, @Nullable Instant end, boolean error) {
+        final Instant start = context.getExecutionMoment();
+        final long nanos = start == null || end == null ? 0 : Duration.between(start, end).toNanos();
+        final Object table = context.getAttribute("tableName");
+        metrics.record(table == null ? null : table.toString(), operation(context), nanos, 0, error);
+    }
+
+    private static String operation(StatementContext context) {
+        final ExtensionMethod extensionMethod = context.getExtensionMethod();
+        return extensionMethod == null ? RAW_SQL : extensionMethod.getMethod().getName();
+    }
+    //endregion
+}
@@ -0,0 +1,15 @@
+package ru.iopump.jdbi.db.metrics;
+
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Тег метрики: таблица и операция (имя метода DAO).
+ */
+@Value
+class OperationKey {
+    @NonNull
+    private final String table;
+    @NonNull
+    private final String operation;
+}
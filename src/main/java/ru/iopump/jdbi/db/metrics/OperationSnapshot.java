@@ -0,0 +1,48 @@
+package ru.iopump.jdbi.db.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import lombok.Value;
+
+/**
+ * Снимок метрик одной операции DAO над таблицей. Время в наносекундах.
+ */
+@Value
+public class OperationSnapshot {
+    private final String table;
+    private final String operation;
+    private final long count;
+    private final long errors;
+    private final long rows;
+    private final long meanNanos;
+    private final long p50Nanos;
+    private final long p95Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+
+    static OperationSnapshot of(OperationKey key, LatencyHistogram.Snapshot histogram, long errors, long rows) {
+        return new OperationSnapshot(key.getTable(),
+                key.getOperation(),
+                histogram.getCount(),
+                errors,
+                rows,
+                histogram.getMeanNanos(),
+                histogram.getValueAtPercentile(50),
+                histogram.getValueAtPercentile(95),
+                histogram.getValueAtPercentile(99),
+                histogram.getValueAtPercentile(99.9),
+                histogram.getMaxNanos());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s.%s count=%d errors=%d rows=%d mean=%.3fms p50=%.3fms p95=%.3fms p99=%.3fms p99.9=%.3fms max=%.3fms",
+                table, operation, count, errors, rows,
+                millis(meanNanos), millis(p50Nanos), millis(p95Nanos), millis(p99Nanos), millis(p999Nanos), millis(maxNanos));
+    }
+
+    private static double millis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
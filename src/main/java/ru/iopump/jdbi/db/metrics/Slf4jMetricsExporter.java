@@ -0,0 +1,18 @@
+package ru.iopump.jdbi.db.metrics;
+
+import java.util.List;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Экспорт метрик в лог, по строке на операцию.
+ */
+@Slf4j
+public class Slf4jMetricsExporter implements MetricsExporter {
+
+    @Override
+    public void export(@NonNull List<OperationSnapshot> snapshots) {
+        snapshots.forEach(snapshot -> log.info("[DAO METRICS] {}", snapshot));
+    }
+}
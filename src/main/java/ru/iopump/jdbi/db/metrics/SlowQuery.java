@@ -0,0 +1,64 @@
+package ru.iopump.jdbi.db.metrics;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+import lombok.Value;
+
+/**
+ * Медленный sql запрос из {@link SlowQueryLog}.
+ */
+@Value
+public class SlowQuery {
+    /**
+     * Момент завершения запроса.
+     */
+    private final Instant time;
+    /**
+     * Итоговый sql после подстановки шаблона.
+     */
+    private final String sql;
+    /**
+     * Значения параметров запроса.
+     */
+    private final String bindings;
+    private final long elapsedNanos;
+    /**
+     * Строки результата вызова DAO или -1, если DAO не обернут в {@link SlowQueryLog#wrap(Class, ru.iopump.jdbi.db.dao.CrudDao)}.
+     */
+    private final long rows;
+    /**
+     * Метод DAO вида 'OnlineLogDao.findListByColumnValue'.
+     */
+    @Nullable
+    private final String daoMethod;
+    /**
+     * Метод SqlObject, выполнивший запрос, вида 'OnlineLogDao.internalFindConditions'.
+     */
+    @Nullable
+    private final String statementMethod;
+    /**
+     * Первый вызов из прикладного кода вне Jdbi и этой библиотеки.
+     */
+    @Nullable
+    private final String callSite;
+    private final boolean error;
+
+    SlowQuery withCall(long callRows, @Nullable String callDaoMethod) {
+        return new SlowQuery(time, sql, bindings, elapsedNanos, callRows, callDaoMethod, statementMethod, callSite, error);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.3fms%s rows=%s dao=%s statement=%s at %s\n%s\n%s",
+                (double) elapsedNanos / TimeUnit.MILLISECONDS.toNanos(1),
+                error ? " ERROR" : "",
+                rows < 0 ? "?" : rows,
+                daoMethod,
+                statementMethod,
+                callSite,
+                sql,
+                bindings);
+    }
+}
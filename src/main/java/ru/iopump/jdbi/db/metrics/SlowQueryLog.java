@@ -0,0 +1,227 @@
+package ru.iopump.jdbi.db.metrics;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.Nullable;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.extension.ExtensionMethod;
+import org.jdbi.v3.core.statement.SqlStatements;
+import org.jdbi.v3.core.statement.StatementContext;
+import ru.iopump.jdbi.db.dao.CrudDao;
+
+/**
+ * Журнал медленных sql запросов.
+ * <br/>Запрос дольше порога с вероятностью sampleRate попадает в кольцевой буфер фиксированного размера
+ * (старые записи вытесняются) и в лог (WARN). Итоговый sql, параметры и место вызова собираются только для
+ * таких запросов, остальные стоят одно сравнение.
+ * <br/>{@link #install(Jdbi)} подключает журнал к Jdbi, {@link #wrap(Class, CrudDao)} дополнительно связывает
+ * запросы с вызванным методом DAO и числом строк его результата.
+ * <br/>Содержимое буфера: {@link #dump()}.
+ */
+@Slf4j
+public class SlowQueryLog {
+    private static final String[] LIBRARY_PACKAGES = {
+            "org.jdbi.", "ru.iopump.jdbi.db.", "java.", "javax.", "jdk.", "sun.", "com.sun.proxy."
+    };
+
+    @Getter
+    private final Duration threshold;
+    @Getter
+    private final double sampleRate;
+    private final long thresholdNanos;
+    private final AtomicReferenceArray<SlowQuery> buffer;
+    private final AtomicLong sequence = new AtomicLong();
+    /**
+     * Текущий вызов DAO, обернутого этим журналом. Свой у каждого журнала, чтобы запросы не попадали в чужой буфер.
+     */
+    private final ThreadLocal<DaoCall> currentCall = new ThreadLocal<>();
+
+    /**
+     * @param threshold  Порог, запросы не быстрее порога считаются медленными.
+     * @param sampleRate Доля сохраняемых медленных запросов от 0 до 1.
+     * @param capacity   Размер кольцевого буфера.
+     */
+    public SlowQueryLog(@NonNull Duration threshold, double sampleRate, int capacity) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("sampleRate должен быть от 0 до 1: " + sampleRate);
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity должен быть больше 0: " + capacity);
+        }
+        this.threshold = threshold;
+        this.sampleRate = sampleRate;
+        this.thresholdNanos = threshold.toNanos();
+        this.buffer = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Подключить журнал к Jdbi. Уже настроенный SqlLogger продолжает вызываться.
+     */
+    @NonNull
+    public Jdbi install(@NonNull Jdbi jdbi) {
+        final SqlStatements statements = jdbi.getConfig(SqlStatements.class);
+        statements.setSqlLogger(new SlowQuerySqlLogger(this, statements.getSqlLogger()));
+        return jdbi;
+    }
+
+    /**
+     * Обернуть DAO, чтобы медленные запросы содержали метод DAO и число строк результата.
+     *
+     * @param daoType Интерфейс DAO.
+     * @param dao     DAO из Jdbi, к которому подключен журнал через {@link #install(Jdbi)}.
+     */
+    @NonNull
+    public <DAO extends CrudDao> DAO wrap(@NonNull Class<DAO> daoType, @NonNull DAO dao) {
+        //noinspection unchecked
+        return (DAO) Proxy.newProxyInstance(daoType.getClassLoader(),
+                new Class[]{daoType},
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        switch (method.getName()) {
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            default:
+                                return "SlowQueryLogged" + dao;
+                        }
+                    }
+                    final DaoCall call = new DaoCall(daoType.getSimpleName() + "." + method.getName(), currentCall.get());
+                    currentCall.set(call);
+                    boolean error = true;
+                    Object result = null;
+                    try {
+                        result = method.invoke(dao, args);
+                        error = false;
+                        return result;
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    } finally {
+                        if (call.parent == null) {
+                            currentCall.remove();
+                        } else {
+                            currentCall.set(call.parent);
+                        }
+                        final long rows = DaoMetrics.rows(method, args, result, error);
+                        call.pending.forEach(query -> add(query.withCall(rows, call.daoMethod)));
+                    }
+                });
+    }
+
+    /**
+     * Медленные запросы из буфера от старых к новым.
+     */
+    @NonNull
+    public List<SlowQuery> dump() {
+        final int capacity = buffer.length();
+        final long end = sequence.get();
+        final List<SlowQuery> result = new ArrayList<>(capacity);
+        for (long i = Math.max(0, end - capacity); i < end; i++) {
+            final SlowQuery query = buffer.get((int) (i % capacity));
+            if (query != null) {
+                result.add(query);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Записать содержимое буфера в лог.
+     */
+    public void dumpToLog() {
+        dump().forEach(query -> log.info("[SLOW QUERY] {}", query));
+    }
+
+    /**
+     * Очистить буфер.
+     */
+    public void clear() {
+        for (int i = 0; i < buffer.length(); i++) {
+            buffer.set(i, null);
+        }
+    }
+
+    //region Private
+    void onStatement(StatementContext context, @Nullable Instant end, boolean error) {
+        final Instant start = context.getExecutionMoment();
+        if (start == null || end == null) {
+            return;
+        }
+        final long nanos = Duration.between(start, end).toNanos();
+        if (nanos < thresholdNanos || sampleRate == 0
+                || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+        final SlowQuery query = new SlowQuery(end,
+                context.getRenderedSql(),
+                String.valueOf(context.getBinding()),
+                nanos,
+                -1,
+                null,
+                statementMethod(context),
+                callSite(),
+                error);
+        final DaoCall call = currentCall.get();
+        if (call == null) {
+            add(query);
+        } else {
+            // строки станут известны после завершения вызова DAO.
+            // Больше размера буфера не копим: старые все равно будут вытеснены, записываются сразу без строк
+            if (call.pending.size() >= buffer.length()) {
+                add(call.pending.removeFirst());
+            }
+            call.pending.addLast(query);
+        }
+    }
+
+    private void add(SlowQuery query) {
+        final long index = sequence.getAndIncrement();
+        buffer.set((int) (index % buffer.length()), query);
+        log.warn("[SLOW QUERY] {}", query);
+    }
+
+    @Nullable
+    private static String statementMethod(StatementContext context) {
+        final ExtensionMethod extensionMethod = context.getExtensionMethod();
+        return extensionMethod == null
+                ? null
+                : extensionMethod.getType().getSimpleName() + "." + extensionMethod.getMethod().getName();
+    }
+
+    @Nullable
+    private static String callSite() {
+        for (StackTraceElement element : new Throwable().getStackTrace()) {
+            if (!StringUtils.startsWithAny(element.getClassName(), LIBRARY_PACKAGES)) {
+                return element.toString();
+            }
+        }
+        return null;
+    }
+
+    private static final class DaoCall {
+        private final String daoMethod;
+        @Nullable
+        private final DaoCall parent;
+        private final Deque<SlowQuery> pending = new ArrayDeque<>(1);
+
+        private DaoCall(String daoMethod, @Nullable DaoCall parent) {
+            this.daoMethod = daoMethod;
+            this.parent = parent;
+        }
+    }
+    //endregion
+}
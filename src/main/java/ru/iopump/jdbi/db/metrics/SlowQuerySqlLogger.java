@@ -0,0 +1,38 @@
+package ru.iopump.jdbi.db.metrics;
+
+import java.sql.SQLException;
+import javax.annotation.Nullable;
+
+import lombok.NonNull;
+import org.jdbi.v3.core.statement.SqlLogger;
+import org.jdbi.v3.core.statement.StatementContext;
+
+/**
+ * {@link SqlLogger}, который передает время каждого sql запроса в {@link SlowQueryLog}.
+ */
+final class SlowQuerySqlLogger implements SqlLogger {
+    private final SlowQueryLog slowQueryLog;
+    private final SqlLogger delegate;
+
+    SlowQuerySqlLogger(@NonNull SlowQueryLog slowQueryLog, @Nullable SqlLogger delegate) {
+        this.slowQueryLog = slowQueryLog;
+        this.delegate = delegate == null ? SqlLogger.NOP_SQL_LOGGER : delegate;
+    }
+
+    @Override
+    public void logBeforeExecution(StatementContext context) {
+        delegate.logBeforeExecution(context);
+    }
+
+    @Override
+    public void logAfterExecution(StatementContext context) {
+        slowQueryLog.onStatement(context, context.getCompletionMoment(), false);
+        delegate.logAfterExecution(context);
+    }
+
+    @Override
+    public void logException(StatementContext context, SQLException ex) {
+        slowQueryLog.onStatement(context, context.getExceptionMoment(), true);
+        delegate.logException(context, ex);
+    }
+}
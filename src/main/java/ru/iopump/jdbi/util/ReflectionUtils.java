@@ -3,8 +3,12 @@ package ru.iopump.jdbi.util;
 import static java.lang.String.format;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.Arrays;
@@ -79,6 +83,36 @@ public class ReflectionUtils {
         return ClassFilter.of(subType::isAssignableFrom);
     }
 
+    /**
+     * Invoke interface default method on proxy instance.
+     * Java 9+ uses {@code MethodHandles.privateLookupIn}, Java 8 falls back to the private {@link Lookup} constructor.
+     *
+     * @param iface  proxied interface, declares or inherits the method
+     * @param proxy  proxy instance
+     * @param method default method
+     * @param args   method arguments
+     */
+    public Object invokeDefault(@NonNull Class<?> iface,
+                                @NonNull Object proxy,
+                                @NonNull Method method,
+                                @Nullable Object... args) throws Throwable {
+        return privateLookup(iface)
+                .unreflectSpecial(method, iface)
+                .bindTo(proxy)
+                .invokeWithArguments(args == null ? new Object[0] : args);
+    }
+
+    private Lookup privateLookup(Class<?> cls) throws ReflectiveOperationException {
+        try {
+            final Method privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, Lookup.class);
+            return (Lookup) privateLookupIn.invoke(null, cls, MethodHandles.lookup());
+        } catch (NoSuchMethodException java8) {
+            final Constructor<Lookup> constructor = Lookup.class.getDeclaredConstructor(Class.class);
+            constructor.setAccessible(true);
+            return constructor.newInstance(cls);
+        }
+    }
+
     public <T> T newInstance(@NonNull Class<T> clazz, Object... args) {
         try {
             return ConstructorUtils.invokeConstructor(clazz, args);
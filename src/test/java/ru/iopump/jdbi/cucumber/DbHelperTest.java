@@ -8,6 +8,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.zapodot.junit.db.CompatibilityMode;
 import org.zapodot.junit.db.EmbeddedDatabaseRule;
+import ru.iopump.jdbi.db.dao.CrudDao;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -36,6 +37,20 @@ public class DbHelperTest {
                 .isInstanceOf(IllegalArgumentException.class);
     }
 
+    @Test
+    public void testDaoPerJdbi() {
+        final DbHelper helper = new DbHelper("ru.iopump.jdbi");
+        final Jdbi jdbi = getDao();
+        final CrudDao dao = helper.loadDaoByTableName(jdbi, "table");
+
+        assertThat((CrudDao) helper.loadDaoByTableName(jdbi, "TABLE")).isSameAs(dao);
+        assertThat((CrudDao) new DbHelper("ru.iopump.jdbi").loadDaoByTableName(jdbi, "table")).isSameAs(dao);
+        assertThat((CrudDao) helper.loadDaoByTableName(getDao(), "table")).isNotSameAs(dao);
+
+        jdbi.getConfig(DbHelperDaos.class).clear();
+        assertThat((CrudDao) helper.loadDaoByTableName(jdbi, "table")).isNotSameAs(dao);
+    }
+
     private Jdbi getDao() {
         return Jdbi.create(dbRule.getDataSource())
                 .installPlugin(new SqlObjectPlugin())
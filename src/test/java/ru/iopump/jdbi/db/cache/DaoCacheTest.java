@@ -0,0 +1,141 @@
+package ru.iopump.jdbi.db.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+import com.google.common.io.Resources;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.jpa.JpaPlugin;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+import org.junit.Rule;
+import org.junit.Test;
+import org.zapodot.junit.db.CompatibilityMode;
+import org.zapodot.junit.db.EmbeddedDatabaseRule;
+import ru.iopump.jdbi.db.dao.DaoCondition;
+import ru.iopump.jdbi.db.dao.DaoConditionChain;
+import ru.iopump.jdbi.db.dao.DaoSubQueryCondition;
+import ru.iopump.jdbi.db.dao.OnlineLogDao;
+import ru.iopump.jdbi.db.dao.OnlineLogEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DaoCacheTest {
+
+    @Rule
+    public final EmbeddedDatabaseRule dbRule = EmbeddedDatabaseRule.h2()
+            .withMode(CompatibilityMode.MySQL)
+            .withInitialSqlFromResource("classpath:db.sql")
+            .build();
+
+    @Test
+    public void testFindOneCached() {
+        final OnlineLogDao dao = DaoCache.wrap(OnlineLogDao.class, getDao(), 10, 60);
+        final CachedDao cached = (CachedDao) dao;
+
+        assertThat(dao.findOne(1)).get().hasFieldOrPropertyWithValue("safPlanId", "PLAN_1");
+        assertThat(dao.findOne(1)).get().hasFieldOrPropertyWithValue("safPlanId", "PLAN_1");
+        assertThat(dao.findOne(100)).isNotPresent();
+        assertThat(dao.findOne(100)).isNotPresent();
+        assertThat(cached.entityCacheStats().hitCount()).isEqualTo(1);
+        assertThat(cached.entityCacheStats().missCount()).isEqualTo(3);
+
+        dao.update(new OnlineLogEntity(1, "0000000001", null, "UPDATED", null));
+        assertThat(dao.findOne(1)).get().hasFieldOrPropertyWithValue("safPlanId", "UPDATED");
+
+        dao.deleteAll(Arrays.asList(1, 2));
+        assertThat(dao.findOne(1)).isNotPresent();
+        assertThat(dao.findOne(2)).isNotPresent();
+
+        assertThat(dao.findOne(3)).isPresent();
+        dao.truncate();
+        assertThat(dao.findOne(3)).isNotPresent();
+    }
+
+    @Test
+    public void testQueryCache() {
+        final OnlineLogDao dao = DaoCache.wrap(OnlineLogDao.class, getDao(), CacheSettings.none().withQueryCache(3, 60));
+        final CachedDao cached = (CachedDao) dao;
+        final DaoConditionChain chain = new DaoConditionChain(DaoCondition.equal("env_id", "0000000003"));
+
+        assertThat(dao.findListByColumnValue(chain)).hasSize(2);
+        assertThat(dao.findListByColumnValue(new DaoConditionChain(DaoCondition.equal("env_id", "0000000003"))))
+                .hasSize(2);
+        assertThat(cached.queryCacheStats().hitCount()).isEqualTo(1);
+
+        dao.insert(new OnlineLogEntity(null, "0000000003", null, "QUERY", null));
+        assertThat(dao.findListByColumnValue(chain)).hasSize(3);
+
+        // 5 строк больше лимита в 3 строки - результат вытесняется сразу
+        assertThat(dao.findListByColumnValue(new DaoConditionChain())).hasSize(5);
+        assertThat(dao.findListByColumnValue(new DaoConditionChain())).hasSize(5);
+        assertThat(cached.queryCacheStats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testQueryCacheScope() {
+        final OnlineLogDao dao = DaoCache.wrap(OnlineLogDao.class, getDao(), CacheSettings.none().withQueryCache(100, 0));
+        final DaoConditionChain chain = new DaoConditionChain(DaoCondition.equal("env_id", "0000000003"));
+
+        try (QueryCacheScope scope = QueryCacheScope.open()) {
+            assertThat(dao.findListByColumnValue(chain)).hasSize(2);
+            getDao().delete(3);
+            assertThat(dao.findListByColumnValue(chain)).hasSize(2);
+            assertThat(scope.getRows()).isEqualTo(2);
+
+            dao.delete(4);
+            assertThat(scope.getRows()).isZero();
+            assertThat(dao.findListByColumnValue(chain)).isEmpty();
+        }
+        getDao().insert(new OnlineLogEntity(null, "0000000003", null, "QUERY", null));
+        assertThat(dao.findListByColumnValue(chain)).hasSize(1);
+    }
+
+    @Test
+    public void testQueryCacheScopePerDao() throws Exception {
+        final Jdbi otherJdbi = Jdbi.create("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL")
+                .installPlugin(new SqlObjectPlugin())
+                .installPlugin(new JpaPlugin());
+        final CacheSettings settings = CacheSettings.none().withQueryCache(100, 0);
+        final DaoConditionChain chain = new DaoConditionChain(DaoCondition.equal("env_id", "0000000003"));
+        try (Handle handle = otherJdbi.open(); QueryCacheScope ignored = QueryCacheScope.open()) {
+            handle.createScript(Resources.toString(Resources.getResource("db.sql"), StandardCharsets.UTF_8)).execute();
+            handle.execute("delete from online_log");
+            final OnlineLogDao dao = DaoCache.wrap(OnlineLogDao.class, getDao(), settings);
+            final OnlineLogDao other = DaoCache.wrap(OnlineLogDao.class, otherJdbi.onDemand(OnlineLogDao.class), settings);
+
+            // таблица с тем же именем в другой БД не получает результаты из области
+            assertThat(dao.findListByColumnValue(chain)).hasSize(2);
+            assertThat(other.findListByColumnValue(chain)).isEmpty();
+        }
+    }
+
+    @Test
+    public void testSubQueryNotCached() {
+        final OnlineLogDao dao = DaoCache.wrap(OnlineLogDao.class, getDao(), CacheSettings.none().withQueryCache(100, 60));
+        final CachedDao cached = (CachedDao) dao;
+        final DaoConditionChain chain = new DaoConditionChain(DaoSubQueryCondition.in("record_id", getDao(), "record_id",
+                new DaoConditionChain(DaoCondition.equal("env_id", "0000000003"))));
+
+        assertThat(dao.findListByColumnValue(chain)).hasSize(2);
+        // запись в таблицу подзапроса через другой DAO не сбрасывает кэш этого DAO
+        getDao().delete(3);
+        assertThat(dao.findListByColumnValue(chain)).hasSize(1);
+        assertThat(cached.queryCacheStats().requestCount()).isZero();
+    }
+
+    @Test
+    public void testWrapByAnnotation() {
+        final OnlineLogDao dao = getDao();
+        assertThat(DaoCache.wrap(OnlineLogDao.class, dao)).isSameAs(dao);
+        assertThat(DaoCache.isCached(DaoCache.wrap(OnlineLogDao.class, dao, 1, 1))).isTrue();
+    }
+
+    private OnlineLogDao getDao() {
+        return Jdbi.create(dbRule.getDataSource())
+                .installPlugin(new SqlObjectPlugin())
+                .installPlugin(new JpaPlugin())
+                .onDemand(OnlineLogDao.class);
+    }
+}
@@ -3,7 +3,20 @@ package ru.iopump.jdbi.db.dao;
 import static java.lang.String.format;
 
 import java.time.LocalDateTime;
-
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.google.common.collect.Lists;
 import lombok.val;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.core.statement.UnableToCreateStatementException;
@@ -13,6 +26,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.zapodot.junit.db.CompatibilityMode;
 import org.zapodot.junit.db.EmbeddedDatabaseRule;
+import ru.iopump.jdbi.db.dialect.DialectConfig;
+import ru.iopump.jdbi.db.dialect.StandardDialect;
 import ru.iopump.jdbi.db.exception.DbException;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -61,6 +76,36 @@ public class AbstractCrudDaoTest {
                 .hasFieldOrPropertyWithValue("txnSource", "TNX_TEST_3");
     }
 
+    @Test
+    public void testFindAllById() {
+        assertThat(dbRule.getConnection()).isNotNull();
+        final OnlineLogDao dao = getDao();
+        final Map<Integer, OnlineLogEntity> found = dao.findAllById(Arrays.asList(4, 100, 1, 3, 1), 2);
+        assertThat(found.keySet()).containsExactly(4, 1, 3);
+        assertThat(found.get(3)).hasFieldOrPropertyWithValue("safPlanId", "PLAN_3");
+        assertThat(dao.findAllById(Collections.emptyList())).isEmpty();
+
+        try (AsyncCrudDao<OnlineLogEntity, Integer> async = new AsyncCrudDao<>(dao, 2)) {
+            assertThat(async.findAllById(Arrays.asList(3, 2, 1, 4), 1).join().keySet())
+                    .containsExactly(3, 2, 1, 4);
+        }
+    }
+
+    @Test
+    public void testFindColumns() {
+        assertThat(dbRule.getConnection()).isNotNull();
+        final OnlineLogDao dao = getDao();
+        final DaoConditionChain chain = new DaoConditionChain(DaoCondition.equal("env_id", "0000000003"));
+
+        assertThat(dao.findColumns(new LinkedHashSet<>(Arrays.asList("record_id", "TXN_SOURCE")), chain))
+                .hasSize(2)
+                .allMatch(row -> row.keySet().equals(new HashSet<>(Arrays.asList("record_id", "txn_source"))));
+        assertThat(dao.findColumn("record_id", chain)).containsExactlyInAnyOrder(3L, 4L);
+        assertThat(dao.findColumn("saf_plan_id", new DaoConditionChain())).hasSize(4);
+        assertThatThrownBy(() -> dao.findColumns(Collections.emptySet(), chain))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test
     public void testFindListByColumnValue() {
         assertThat(dbRule.getConnection()).isNotNull();
@@ -76,6 +121,8 @@ public class AbstractCrudDaoTest {
 
         assertThat(dao.findListByColumnValue("txn_source", null))
                 .hasSize(2);
+        assertThat(dao.findListByColumnValue("txn_source", "null"))
+                .isEmpty();
     }
 
 
@@ -92,6 +139,12 @@ public class AbstractCrudDaoTest {
 
         assertThat(dao.findListByColumnValue(chain))
                 .hasSize(1);
+
+        // значение передается параметром, кавычки не ломают запрос
+        assertThat(dao.findListByColumnValue(new DaoConditionChain(DaoCondition.equal("env_id", "0000' or '1' = '1"))))
+                .isEmpty();
+        assertThat(dao.findListByColumnValue(new DaoConditionChain(DaoCondition.isNull("txn_source"))))
+                .hasSize(2);
     }
 
     @Test
@@ -116,6 +169,95 @@ public class AbstractCrudDaoTest {
                 .hasSize(1);
     }
 
+    @Test
+    public void testFindListBySubQueryPushDown() {
+        assertThat(dbRule.getConnection()).isNotNull();
+        final OnlineLogDao dao = getDao();
+        val date = LocalDateTime.of(2000, 1, 1, 0, 0, 1);
+
+        DaoConditionChain chainSub = new DaoConditionChain(more("record_id", 0))
+                .and(like("env_id", "0000000003"))
+                .and(less("env_timein", date));
+
+        assertThat(dao.findListByColumnValue(new DaoConditionChain(
+                DaoSubQueryCondition.in("record_id", dao, "record_id", chainSub))))
+                .hasSize(1);
+
+        assertThat(dao.findListByColumnValue(new DaoConditionChain(
+                DaoSubQueryCondition.exists(dao, "record_id", dao, "record_id", chainSub))
+                .and(more("record_id", 3))))
+                .hasSize(1);
+
+        assertThat(dao.findListByColumnValue(new DaoConditionChain(
+                DaoSubQueryCondition.in("record_id", dao, "record_id",
+                        new DaoConditionChain(DaoCondition.equal("env_id", "not_exists"))))))
+                .isEmpty();
+    }
+
+    @Test
+    public void testSubQueryQuotedTableName() {
+        final Jdbi jdbi = Jdbi.create(dbRule.getDataSource())
+                .installPlugin(new SqlObjectPlugin())
+                .installPlugin(new JpaPlugin());
+        jdbi.getConfig(DialectConfig.class).setDialect(StandardDialect.POSTGRES);
+        jdbi.getConfig(DialectConfig.class).setQuoteIdentifiers(true);
+        final OnlineLogDao dao = jdbi.onDemand(OnlineLogDao.class);
+        final DaoConditionChain chainSub = new DaoConditionChain(DaoCondition.equal("env_id", "0000000003"));
+
+        assertThat(DaoSubQueryCondition.in("record_id", dao, "record_id", chainSub).asString())
+                .contains("from \"online_log\" where");
+        assertThat(DaoSubQueryCondition.exists(dao, "record_id", dao, "record_id", chainSub).asString())
+                .contains("from \"online_log\" sq")
+                .contains("= \"online_log\".record_id");
+    }
+
+    @Test
+    public void testWithStreamByColumnValue() {
+        assertThat(dbRule.getConnection()).isNotNull();
+        final OnlineLogDao dao = getDao();
+
+        assertThat(dao.withStreamByColumnValue(new DaoConditionChain(), 2, Stream::count))
+                .isEqualTo(4L);
+        assertThat(dao.withStreamByColumnValue(new DaoConditionChain(DaoCondition.equal("env_id", "0000000003")),
+                1,
+                s -> s.map(OnlineLogEntity::getRecordId).collect(Collectors.toList())))
+                .containsExactly(3, 4);
+    }
+
+    @Test
+    public void testPageAfter() {
+        assertThat(dbRule.getConnection()).isNotNull();
+        final OnlineLogDao dao = getDao();
+
+        assertThat(dao.pageAfter(null, 3, InternalCrudDao.OrderType.ASC))
+                .extracting("recordId")
+                .containsExactly(1, 2, 3);
+        assertThat(dao.pageAfter(3, 3, InternalCrudDao.OrderType.ASC))
+                .extracting("recordId")
+                .containsExactly(4);
+        assertThat(dao.pageAfter(3, 3, InternalCrudDao.OrderType.DESC))
+                .extracting("recordId")
+                .containsExactly(2, 1);
+        assertThat(dao.pageAfter(new DaoConditionChain(DaoCondition.equal("env_id", "0000000003")),
+                3, 3, InternalCrudDao.OrderType.ASC))
+                .extracting("recordId")
+                .containsExactly(4);
+    }
+
+    @Test
+    public void testIterateAll() {
+        assertThat(dbRule.getConnection()).isNotNull();
+        final OnlineLogDao dao = getDao();
+
+        assertThat(Lists.newArrayList(dao.iterateAll(new DaoConditionChain(), 3, InternalCrudDao.OrderType.DESC)))
+                .extracting("recordId")
+                .containsExactly(4, 3, 2, 1);
+        assertThat(Lists.newArrayList(dao.iterateAll(new DaoConditionChain(DaoCondition.equal("env_id", "0000000003")),
+                1, InternalCrudDao.OrderType.ASC)))
+                .extracting("recordId")
+                .containsExactly(3, 4);
+    }
+
     @Test
     public void testFindLast() {
         assertThat(dbRule.getConnection()).isNotNull();
@@ -173,6 +315,52 @@ public class AbstractCrudDaoTest {
                 .hasFieldOrPropertyWithValue("txnSource", "TEST");
     }
 
+    @Test
+    public void testInsertAll() {
+        assertThat(dbRule.getConnection()).isNotNull();
+        final OnlineLogDao dao = getDao();
+        val date = LocalDateTime.of(2001, 1, 1, 0, 0, 0);
+        dao.insertAll(Arrays.asList(
+                new OnlineLogEntity(null, "BATCH_1", date, "BATCH", null),
+                new OnlineLogEntity(null, "BATCH_2", date, "BATCH", "TEST"),
+                new OnlineLogEntity(null, "BATCH_3", null, "BATCH", "TEST")
+        ), 2);
+
+        assertThat(dao.count()).isEqualTo(7);
+        assertThat(dao.findListByColumnValue("saf_plan_id", "BATCH"))
+                .hasSize(3)
+                .extracting("envId")
+                .containsExactlyInAnyOrder("BATCH_1", "BATCH_2", "BATCH_3");
+    }
+
+    @Test
+    public void testUpsert() {
+        assertThat(dbRule.getConnection()).isNotNull();
+        final OnlineLogDao dao = getDao();
+        val date = LocalDateTime.of(2001, 1, 1, 0, 0, 0);
+        assertThatThrownBy(() -> dao.upsert(new OnlineLogEntity()))
+                .isInstanceOf(DbException.class);
+
+        assertThat(dao.upsert(new OnlineLogEntity(1, "UPSERT_1", date, "UPSERT", null))).isEqualTo(1);
+        dao.upsertAll(Arrays.asList(
+                new OnlineLogEntity(2, "UPSERT_2", date, "UPSERT", "TEST"),
+                new OnlineLogEntity(10, "UPSERT_10", null, "UPSERT", "TEST")
+        ), 1);
+
+        assertThat(dao.count()).isEqualTo(5);
+        assertThat(dao.findOne(1)).get()
+                .hasFieldOrPropertyWithValue("envId", "UPSERT_1")
+                .hasFieldOrPropertyWithValue("txnSource", null);
+        assertThat(dao.findListByColumnValue("saf_plan_id", "UPSERT"))
+                .extracting("recordId")
+                .containsExactlyInAnyOrder(1, 2, 10);
+
+        assertThat(StandardDialect.POSTGRES.upsert("t", "id", Arrays.asList("a", "id"), ":p0, :p1"))
+                .isEqualTo("insert into t (a, id) values (:p0, :p1) on conflict (id) do update set a = excluded.a");
+        assertThat(StandardDialect.MYSQL.upsert("t", "id", Arrays.asList("a", "id"), ":p0, :p1"))
+                .isEqualTo("insert into t (a, id) values (:p0, :p1) on duplicate key update a = values(a)");
+    }
+
     @Test
     public void testUpdate() {
         assertThat(dbRule.getConnection()).isNotNull();
@@ -201,6 +389,26 @@ public class AbstractCrudDaoTest {
                 .hasFieldOrPropertyWithValue("txnSource", "TNX_TEST_1");
     }
 
+    @Test
+    public void testBlindUpdate() {
+        assertThat(dbRule.getConnection()).isNotNull();
+        final OnlineLogDao dao = getDao();
+        assertThatThrownBy(() -> dao.blindUpdate(new OnlineLogEntity()))
+                .isInstanceOf(DbException.class);
+        assertThatThrownBy(() -> dao.blindUpdate(new OnlineLogEntity(10, null, null, null, null)))
+                .isInstanceOf(DbException.class);
+
+        assertThat(dao.blindUpdate(new OnlineLogEntity(2, "0000000002", null, "PLAN_BLIND", "TNX_BLIND")))
+                .isEqualTo(2);
+
+        assertThat(dao.findOne(2))
+                .isPresent()
+                .get()
+                .hasFieldOrPropertyWithValue("envTimeIn", null)
+                .hasFieldOrPropertyWithValue("safPlanId", "PLAN_BLIND")
+                .hasFieldOrPropertyWithValue("txnSource", "TNX_BLIND");
+    }
+
     @Test
     public void testDelete() {
         assertThat(dbRule.getConnection()).isNotNull();
@@ -209,6 +417,67 @@ public class AbstractCrudDaoTest {
         assertThat(dao.count()).isEqualTo(3);
     }
 
+    @Test
+    public void testDeleteAll() {
+        assertThat(dbRule.getConnection()).isNotNull();
+        final OnlineLogDao dao = getDao();
+        assertThat(dao.deleteAll(Arrays.asList(1, 2, 100), 2)).isEqualTo(2);
+        assertThat(dao.deleteAll(Collections.emptyList())).isZero();
+        assertThat(dao.count()).isEqualTo(2);
+
+        dao.insertAll(Arrays.asList(
+                new OnlineLogEntity(null, "DELETE", null, "DELETE", null),
+                new OnlineLogEntity(null, "DELETE", null, "DELETE", null),
+                new OnlineLogEntity(null, "DELETE", null, "DELETE", null)
+        ));
+        assertThat(dao.deleteByColumnValue(new DaoConditionChain(DaoCondition.equal("env_id", "DELETE")), 2))
+                .isEqualTo(3);
+        assertThat(dao.deleteByColumnValue(new DaoConditionChain(DaoCondition.equal("env_id", "0000000003"))))
+                .isEqualTo(2);
+        assertThat(dao.count()).isZero();
+    }
+
+    @Test
+    public void testCountAndExists() {
+        assertThat(dbRule.getConnection()).isNotNull();
+        final OnlineLogDao dao = getDao();
+        final DaoConditionChain chain = new DaoConditionChain(DaoCondition.equal("env_id", "0000000003"));
+        final DaoConditionChain notExists = new DaoConditionChain(DaoCondition.equal("env_id", "not_exists"));
+
+        assertThat(dao.count(chain)).isEqualTo(2);
+        assertThat(dao.count(notExists)).isZero();
+        assertThat(dao.count(new DaoConditionChain())).isEqualTo(4);
+
+        assertThat(dao.exists(chain)).isTrue();
+        assertThat(dao.exists(notExists)).isFalse();
+        assertThat(dao.exists(new DaoConditionChain())).isTrue();
+    }
+
+    @Test
+    public void testAsyncCrudDao() {
+        assertThat(dbRule.getConnection()).isNotNull();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        try (AsyncCrudDao<OnlineLogEntity, Integer> async = new AsyncCrudDao<>(getDao(), 2)) {
+            final List<CompletableFuture<Optional<OnlineLogEntity>>> futures = IntStream.rangeClosed(1, 20)
+                    .mapToObj(i -> async.call(dao -> {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        try {
+                            return dao.findOne(i % 4 + 1);
+                        } finally {
+                            running.decrementAndGet();
+                        }
+                    }))
+                    .collect(Collectors.toList());
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+            assertThat(futures).allMatch(future -> future.join().isPresent());
+            assertThat(maxRunning.get()).isBetween(1, 2);
+            assertThat(async.count().join()).isEqualTo(4);
+            assertThat(async.findOne(100).join()).isNotPresent();
+        }
+    }
+
     @Test
     public void testTruncate() {
         assertThat(dbRule.getConnection()).isNotNull();
@@ -0,0 +1,31 @@
+package ru.iopump.jdbi.db.dao;
+
+import org.junit.Test;
+import ru.iopump.jdbi.db.dialect.StandardDialect;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PrecompiledSqlTest {
+
+    @Test
+    public void testCompile() {
+        final PrecompiledSql h2 = PrecompiledSql.of(StandardDialect.H2, "online_log", "record_id");
+
+        assertThat(h2.getCount()).isEqualTo("select count(*) from online_log");
+        assertThat(h2.getExistsAll()).isEqualTo("select 1 from online_log " + StandardDialect.H2.limit(1));
+        assertThat(h2.getFindById()).isEqualTo("select * from online_log where record_id = :id");
+        assertThat(h2.getDeleteById()).isEqualTo("delete from online_log where record_id = :id");
+        assertThat(h2.getDeleteAll()).isEqualTo("delete from online_log");
+        assertThat(h2.getTruncate()).isEqualTo(StandardDialect.H2.truncate("online_log"));
+
+        assertThat(PrecompiledSql.of(StandardDialect.MSSQL, "online_log", "record_id").getExistsAll())
+                .isEqualTo("select " + StandardDialect.MSSQL.top(1) + " 1 from online_log");
+    }
+
+    @Test
+    public void testCached() {
+        assertThat(PrecompiledSql.of(StandardDialect.H2, "online_log", "record_id"))
+                .isSameAs(PrecompiledSql.of(StandardDialect.H2, "online_log", "record_id"))
+                .isNotSameAs(PrecompiledSql.of(StandardDialect.MYSQL, "online_log", "record_id"));
+    }
+}
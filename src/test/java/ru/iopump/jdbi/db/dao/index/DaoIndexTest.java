@@ -0,0 +1,46 @@
+package ru.iopump.jdbi.db.dao.index;
+
+import java.util.Map;
+
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.jpa.JpaPlugin;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+import org.junit.Rule;
+import org.junit.Test;
+import org.zapodot.junit.db.CompatibilityMode;
+import org.zapodot.junit.db.EmbeddedDatabaseRule;
+import ru.iopump.jdbi.cucumber.DbHelper;
+import ru.iopump.jdbi.db.dao.CrudDao;
+import ru.iopump.jdbi.db.dao.OnlineLogDao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DaoIndexTest {
+
+    @Rule
+    public final EmbeddedDatabaseRule dbRule = EmbeddedDatabaseRule.h2()
+            .withMode(CompatibilityMode.MySQL)
+            .withInitialSqlFromResource("classpath:db.sql")
+            .build();
+
+    @Test
+    public void testRead() {
+        final Map<String, String> index = DaoIndex.read(getClass().getClassLoader());
+
+        assertThat(index).containsKey(OnlineLogDao.class.getName());
+        assertThat(index).doesNotContainKey(CrudDao.class.getName());
+    }
+
+    @Test
+    public void testLoadDaoByTableName() {
+        final Jdbi jdbi = Jdbi.create(dbRule.getDataSource())
+                .installPlugin(new SqlObjectPlugin())
+                .installPlugin(new JpaPlugin());
+        final DbHelper dbHelper = new DbHelper("ru.iopump.jdbi.db.dao");
+        final CrudDao dao = dbHelper.loadDaoByTableName(jdbi, "online_log");
+
+        assertThat(dao).isInstanceOf(OnlineLogDao.class);
+        assertThat(dao.count()).isEqualTo(4);
+        assertThat((CrudDao) dbHelper.loadDaoByTableName(jdbi, "ONLINE_LOG")).isSameAs(dao);
+    }
+}
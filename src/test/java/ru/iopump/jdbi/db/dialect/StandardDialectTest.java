@@ -0,0 +1,53 @@
+package ru.iopump.jdbi.db.dialect;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import ru.iopump.jdbi.db.exception.DbException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class StandardDialectTest {
+
+    @Test
+    public void testDetect() {
+        assertThat(StandardDialect.detect("H2")).isEqualTo(StandardDialect.H2);
+        assertThat(StandardDialect.detect("MariaDB")).isEqualTo(StandardDialect.MYSQL);
+        assertThat(StandardDialect.detect("PostgreSQL")).isEqualTo(StandardDialect.POSTGRES);
+        assertThat(StandardDialect.detect("Oracle")).isEqualTo(StandardDialect.ORACLE);
+        assertThat(StandardDialect.detect("Microsoft SQL Server")).isEqualTo(StandardDialect.MSSQL);
+        assertThat(StandardDialect.detect("DB2/LINUXX8664")).isEqualTo(StandardDialect.DB2);
+        assertThat(StandardDialect.detect("HSQL Database Engine")).isEqualTo(StandardDialect.ANSI);
+    }
+
+    @Test
+    public void testPagination() {
+        assertThat(StandardDialect.H2.top(5)).isEmpty();
+        assertThat(StandardDialect.H2.limit(5)).isEqualTo("limit 5");
+        assertThat(StandardDialect.MSSQL.top(5)).isEqualTo("top (5)");
+        assertThat(StandardDialect.MSSQL.limit(5)).isEmpty();
+        assertThat(StandardDialect.ORACLE.limit(5)).isEqualTo("fetch first 5 rows only");
+        assertThat(StandardDialect.DB2.truncate("t")).isEqualTo("truncate table t immediate");
+    }
+
+    @Test
+    public void testUpsert() {
+        assertThat(StandardDialect.ORACLE.upsert("t", "id", Arrays.asList("a", "id"), ":p0, :p1"))
+                .isEqualTo("merge into t t using (select :p0 a, :p1 id from dual) s on (t.id = s.id)"
+                        + " when matched then update set a = s.a"
+                        + " when not matched then insert (a, id) values (s.a, s.id)");
+        assertThat(StandardDialect.MSSQL.upsert("t", "id", Arrays.asList("id"), ":p0"))
+                .isEqualTo("merge into t t using (values (:p0)) as s (id) on (t.id = s.id)"
+                        + " when not matched then insert (id) values (s.id);");
+        assertThatThrownBy(() -> StandardDialect.ANSI.upsert("t", "id", Arrays.asList("a", "id"), ":p0, :p1"))
+                .isInstanceOf(DbException.class);
+    }
+
+    @Test
+    public void testQuote() {
+        assertThat(StandardDialect.POSTGRES.quote("public.order")).isEqualTo("\"public\".\"order\"");
+        assertThat(StandardDialect.MYSQL.quote("order")).isEqualTo("`order`");
+        assertThat(StandardDialect.MSSQL.quote("dbo.my]table")).isEqualTo("[dbo].[my]]table]");
+    }
+}
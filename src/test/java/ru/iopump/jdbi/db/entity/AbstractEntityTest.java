@@ -76,6 +76,30 @@ public class AbstractEntityTest {
                 .containsAllEntriesOf(map);
     }
 
+    @Test
+    public void testSetField() {
+        final AbstractEntity test = new TestAbstractEntity();
+        test.setField("COLUMN1", "newValue");
+        assertThat(test.getFieldValue("column1"))
+                .isEqualTo("newValue");
+        test.setField("column1", "null");
+        assertThat(test.getFieldValue("column1"))
+                .isNull();
+        assertThatThrownBy(() -> test.setField("columnTwo", "notInteger"))
+                .isInstanceOf(DbException.class);
+        assertThatThrownBy(() -> test.setField("notColumn", "value"))
+                .isInstanceOf(DbException.class);
+    }
+
+    @Test
+    public void testMetadataCache() {
+        assertThat(EntityMetadata.of(TestAbstractEntity.class))
+                .isSameAs(EntityMetadata.of(TestAbstractEntity.class));
+        assertThat(EntityMetadata.of(TestAbstractEntity.class).getColumns())
+                .extracting("name")
+                .containsExactlyInAnyOrder("column1", "columnTwo", "column");
+    }
+
     @Setter
     @Getter
     private static class TestAbstractEntity extends AbstractEntity<Long> {
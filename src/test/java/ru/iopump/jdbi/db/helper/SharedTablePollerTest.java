@@ -0,0 +1,243 @@
+package ru.iopump.jdbi.db.helper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.io.Resources;
+import org.awaitility.core.ConditionTimeoutException;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.jpa.JpaPlugin;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+import org.junit.Rule;
+import org.junit.Test;
+import org.zapodot.junit.db.CompatibilityMode;
+import org.zapodot.junit.db.EmbeddedDatabaseRule;
+import ru.iopump.jdbi.db.dao.DaoCondition;
+import ru.iopump.jdbi.db.dao.DaoConditionChain;
+import ru.iopump.jdbi.db.dao.OnlineLogDao;
+import ru.iopump.jdbi.db.dao.OnlineLogEntity;
+import ru.iopump.jdbi.db.exception.PredicateNotApplicable;
+import ru.iopump.jdbi.db.metrics.DaoMetrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SharedTablePollerTest {
+
+    @Rule
+    public final EmbeddedDatabaseRule dbRule = EmbeddedDatabaseRule.h2()
+            .withMode(CompatibilityMode.MySQL)
+            .withInitialSqlFromResource("classpath:db.sql")
+            .build();
+
+    @Test
+    public void testWaitRows() throws Exception {
+        final OnlineLogDao dao = getDao();
+        try (SharedTablePoller poller = new SharedTablePoller(50, 2)) {
+            final CompletableFuture<List<OnlineLogEntity>> existing = poller.waitRows(dao,
+                    new DaoConditionChain(DaoCondition.equal("env_id", "0000000003")), 2, 5_000);
+            final CompletableFuture<List<OnlineLogEntity>> newOne = poller.waitRows(dao,
+                    new DaoConditionChain(DaoCondition.equal("saf_plan_id", "SHARED_1")), 1, 5_000);
+            final CompletableFuture<List<OnlineLogEntity>> newTwo = poller.waitRows(dao,
+                    new DaoConditionChain(DaoCondition.like("saf_plan_id", "SHARED")), 3, 5_000);
+            final CompletableFuture<List<OnlineLogEntity>> timeout = poller.waitRows(dao,
+                    new DaoConditionChain(DaoCondition.equal("saf_plan_id", "NOT_EXISTS")), 0, 200);
+
+            assertThat(existing.get(1, TimeUnit.SECONDS)).hasSize(2);
+
+            dao.insert(new OnlineLogEntity(null, "0000000005", LocalDateTime.now(), "SHARED_1", null));
+            dao.insert(new OnlineLogEntity(null, "0000000006", LocalDateTime.now(), "SHARED_2", null));
+            dao.insert(new OnlineLogEntity(null, "0000000007", LocalDateTime.now(), "SHARED_3", null));
+
+            assertThat(newOne.get(5, TimeUnit.SECONDS))
+                    .extracting("safPlanId")
+                    .containsExactly("SHARED_1");
+            assertThat(newTwo.get(5, TimeUnit.SECONDS))
+                    .extracting("safPlanId")
+                    .containsExactlyInAnyOrder("SHARED_1", "SHARED_2", "SHARED_3");
+            assertThatThrownBy(() -> timeout.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(ConditionTimeoutException.class);
+        }
+    }
+
+    @Test
+    public void testTableWaiterWithSharedPoller() {
+        final OnlineLogDao dao = getDao();
+        try (SharedTablePoller poller = new SharedTablePoller(50)) {
+            final TableWaiter waiter = new TableWaiter(1).withSharedPoller(poller);
+            assertThat(waiter.waitRows(dao, new DaoConditionChain(DaoCondition.equal("env_id", "0000000003")), 2))
+                    .hasSize(2);
+            assertThatThrownBy(() -> waiter.waitRowsAsserted(dao,
+                    new DaoConditionChain(DaoCondition.equal("env_id", "not_exists")), 1))
+                    .isInstanceOf(AssertionError.class);
+        }
+    }
+
+    @Test
+    public void testConditionChainPredicate() {
+        final OnlineLogEntity entity = new OnlineLogEntity(5, "0000000005", LocalDateTime.of(2000, 1, 1, 0, 0), "PLAN_1", null);
+
+        assertThat(new DaoConditionChain(DaoCondition.equal("record_id", 5))
+                .and(DaoCondition.more("record_id", 4))
+                .asPredicate()
+                .test(entity)).isTrue();
+        assertThat(new DaoConditionChain(DaoCondition.more("record_id", 10L))
+                .or(DaoCondition.isNull("txn_source"))
+                .asPredicate()
+                .test(entity)).isTrue();
+        assertThat(new DaoConditionChain(DaoCondition.less("env_timein", LocalDateTime.of(2000, 1, 2, 0, 0)))
+                .and(DaoCondition.more("record_id", 5))
+                .asPredicate()
+                .test(entity)).isFalse();
+        assertThat(new DaoConditionChain(new DaoCondition("env_id", "in", "(1, 2)"))
+                .asPredicate()).isNull();
+    }
+
+    @Test
+    public void testPredicateNotExact() {
+        final OnlineLogEntity entity = new OnlineLogEntity(5, "0000000005", LocalDateTime.of(2000, 1, 1, 0, 0), "PLAN_1", null);
+
+        // строки: регистр и дополнение CHAR зависят от СУБД
+        assertThat(new DaoConditionChain(DaoCondition.equal("saf_plan_id", "PLAN_1")).asPredicate()).isNull();
+        assertThat(new DaoConditionChain(DaoCondition.like("saf_plan_id", "plan")).asPredicate()).isNull();
+        assertThat(new DaoConditionChain(DaoCondition.equal("env_timein", "2000-01-01 00:00:00")).asPredicate()).isNull();
+        // разные типы
+        assertThatThrownBy(() -> new DaoConditionChain(DaoCondition.equal("env_timein", new Date()))
+                .asPredicate()
+                .test(entity))
+                .isInstanceOf(PredicateNotApplicable.class);
+        // колонка не отображена в сущности
+        assertThatThrownBy(() -> new DaoConditionChain(DaoCondition.more("txn_f9", 1))
+                .asPredicate()
+                .test(entity))
+                .isInstanceOf(PredicateNotApplicable.class);
+    }
+
+    @Test
+    public void testCandidatePredicate() {
+        final OnlineLogEntity entity = new OnlineLogEntity(5, "0000000005", null, "Plan_É1  ", null);
+
+        assertThat(new DaoConditionChain(DaoCondition.equal("saf_plan_id", "PLAN_E1"))
+                .asCandidatePredicate()
+                .test(entity)).isTrue();
+        assertThat(new DaoConditionChain(DaoCondition.equal("saf_plan_id", "PLAN_2"))
+                .asCandidatePredicate()
+                .test(entity)).isFalse();
+        assertThat(new DaoConditionChain(new DaoCondition("saf_plan_id", "<>", "Plan_É1"))
+                .asCandidatePredicate()
+                .test(entity)).isFalse();
+        assertThat(new DaoConditionChain(new DaoCondition("saf_plan_id", "<>", "PLAN_É1"))
+                .asCandidatePredicate()
+                .test(entity)).isTrue();
+        assertThat(new DaoConditionChain(DaoCondition.like("saf_plan_id", "an_e"))
+                .and(DaoCondition.equal("record_id", 5))
+                .asCandidatePredicate()
+                .test(entity)).isTrue();
+        assertThat(new DaoConditionChain(new DaoCondition("saf_plan_id", "like", "plan\\_%"))
+                .asCandidatePredicate()
+                .test(entity)).isTrue();
+        assertThat(new DaoConditionChain(new DaoCondition("saf_plan_id", "like", "plan\\%%"))
+                .asCandidatePredicate()
+                .test(entity)).isFalse();
+        assertThatThrownBy(() -> new DaoConditionChain(DaoCondition.equal("record_id", "5"))
+                .asCandidatePredicate()
+                .test(entity))
+                .isInstanceOf(PredicateNotApplicable.class);
+    }
+
+    @Test
+    public void testStringConditionQueriesOnlyOnCandidate() throws Exception {
+        final DaoMetrics metrics = new DaoMetrics();
+        final OnlineLogDao dao = metrics.wrap(OnlineLogDao.class, getDao());
+        try (SharedTablePoller poller = new SharedTablePoller(50)) {
+            final CompletableFuture<List<OnlineLogEntity>> future = poller.waitRows(dao,
+                    new DaoConditionChain(DaoCondition.equal("saf_plan_id", "CANDIDATE")), 1, 5_000);
+            Thread.sleep(300);
+            dao.insert(new OnlineLogEntity(null, "0000000005", LocalDateTime.now(), "OTHER", null));
+            Thread.sleep(300);
+            // только запрос при регистрации: новых кандидатов не было
+            assertThat(metrics.snapshot("online_log", "findListByColumnValue")).get()
+                    .hasFieldOrPropertyWithValue("count", 1L);
+
+            dao.insert(new OnlineLogEntity(null, "0000000005", LocalDateTime.now(), "candidate", null));
+
+            assertThat(future.get(5, TimeUnit.SECONDS))
+                    .extracting("safPlanId")
+                    .containsExactly("candidate");
+            assertThat(metrics.snapshot("online_log", "findListByColumnValue")).get()
+                    .hasFieldOrPropertyWithValue("count", 2L);
+        }
+    }
+
+    @Test
+    public void testIdleTableRemoved() throws Exception {
+        final OnlineLogDao dao = getDao();
+        try (SharedTablePoller poller = new SharedTablePoller(50)) {
+            final CompletableFuture<List<OnlineLogEntity>> future = poller.waitRows(dao,
+                    new DaoConditionChain(DaoCondition.equal("record_id", 100)), 1, 5_000);
+            assertThat(poller.tableCount()).isEqualTo(1);
+
+            dao.insert(new OnlineLogEntity(100, "0000000005", LocalDateTime.now(), "IDLE", null));
+            assertThat(future.get(5, TimeUnit.SECONDS)).hasSize(1);
+            Thread.sleep(300);
+            assertThat(poller.tableCount()).isZero();
+
+            // после удаления состояние создается заново
+            assertThat(poller.waitRows(dao, new DaoConditionChain(DaoCondition.equal("record_id", 100)), 1, 1_000)
+                    .get(1, TimeUnit.SECONDS)).hasSize(1);
+        }
+    }
+
+    @Test
+    public void testFallbackToQuery() throws Exception {
+        final Jdbi jdbi = getJdbi();
+        final OnlineLogDao dao = jdbi.onDemand(OnlineLogDao.class);
+        try (SharedTablePoller poller = new SharedTablePoller(50)) {
+            final CompletableFuture<List<OnlineLogEntity>> future = poller.waitRows(dao,
+                    new DaoConditionChain(DaoCondition.more("txn_f9", 5)), 1, 5_000);
+
+            jdbi.useHandle(handle -> handle.execute("insert into online_log (record_id, env_id, txn_f9) values (10, 'F', 7)"));
+
+            assertThat(future.get(5, TimeUnit.SECONDS))
+                    .extracting("recordId")
+                    .containsExactly(10);
+        }
+    }
+
+    @Test
+    public void testSeparateDatabases() throws Exception {
+        final Jdbi otherJdbi = Jdbi.create("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL")
+                .installPlugin(new SqlObjectPlugin())
+                .installPlugin(new JpaPlugin());
+        try (Handle handle = otherJdbi.open();
+             SharedTablePoller poller = new SharedTablePoller(50)) {
+            handle.createScript(Resources.toString(Resources.getResource("db.sql"), StandardCharsets.UTF_8)).execute();
+            handle.execute("delete from online_log");
+            final DaoConditionChain conditions = new DaoConditionChain(DaoCondition.equal("record_id", 3));
+
+            assertThat(poller.waitRows(getDao(), conditions, 1, 1_000).get(1, TimeUnit.SECONDS)).hasSize(1);
+            assertThatThrownBy(() -> poller.waitRows(otherJdbi.onDemand(OnlineLogDao.class), conditions, 1, 200)
+                    .get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(ConditionTimeoutException.class);
+        }
+    }
+
+    private OnlineLogDao getDao() {
+        return getJdbi().onDemand(OnlineLogDao.class);
+    }
+
+    private Jdbi getJdbi() {
+        return Jdbi.create(dbRule.getDataSource())
+                .installPlugin(new SqlObjectPlugin())
+                .installPlugin(new JpaPlugin());
+    }
+}
@@ -0,0 +1,150 @@
+package ru.iopump.jdbi.db.helper;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.awaitility.core.ConditionTimeoutException;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.jpa.JpaPlugin;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+import org.junit.Rule;
+import org.junit.Test;
+import org.zapodot.junit.db.CompatibilityMode;
+import org.zapodot.junit.db.EmbeddedDatabaseRule;
+import ru.iopump.jdbi.db.dao.DaoCondition;
+import ru.iopump.jdbi.db.dao.DaoConditionChain;
+import ru.iopump.jdbi.db.dao.OnlineLogDao;
+import ru.iopump.jdbi.db.dao.OnlineLogEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TableWaiterTest {
+    private static final InMemoryTableChangeNotifier NOTIFIER = new InMemoryTableChangeNotifier();
+
+    @Rule
+    public final EmbeddedDatabaseRule dbRule = EmbeddedDatabaseRule.h2()
+            .withMode(CompatibilityMode.MySQL)
+            .withInitialSqlFromResource("classpath:db.sql")
+            .build();
+
+    @Test
+    public void testWaitExistingRows() {
+        final OnlineLogDao dao = getDao();
+        final DaoConditionChain chain = new DaoConditionChain(DaoCondition.equal("env_id", "0000000003"));
+
+        assertThat(new TableWaiter(1).waitRows(dao, chain, 2))
+                .hasSize(2);
+        assertThat(new TableWaiter(1).withCountPolling(true).waitRows(dao, chain, 2))
+                .hasSize(2);
+        assertThat(new TableWaiter(1).withWaitStrategy(BackoffWaitStrategy.defaults()).waitRows(dao, chain, 0))
+                .hasSize(2);
+    }
+
+    @Test
+    public void testWaitTimeout() {
+        final OnlineLogDao dao = getDao();
+        final DaoConditionChain chain = new DaoConditionChain(DaoCondition.equal("env_id", "not_exists"));
+
+        assertThatThrownBy(() -> new TableWaiter(1, 100).withCountPolling(true).waitRows(dao, chain, 0))
+                .isInstanceOf(ConditionTimeoutException.class);
+        assertThatThrownBy(() -> new TableWaiter(1, 100).waitRowsAsserted(dao, chain, 1))
+                .isInstanceOf(AssertionError.class);
+    }
+
+    @Test
+    public void testWaitWithChangeNotifier() throws Exception {
+        final OnlineLogDao dao = NOTIFIER.install(getJdbi()).onDemand(OnlineLogDao.class);
+        final DaoConditionChain chain = new DaoConditionChain(DaoCondition.equal("saf_plan_id", "NOTIFY"));
+
+        final CompletableFuture<Void> insert = CompletableFuture.runAsync(() -> {
+            sleep(300);
+            dao.insert(new OnlineLogEntity(null, "0000000005", LocalDateTime.now(), "NOTIFY", null));
+        });
+        final long start = System.nanoTime();
+        // задержка между циклами больше таймаута, запись должна быть найдена только благодаря уведомлению
+        assertThat(new TableWaiter(10, 60_000).withChangeNotifier(NOTIFIER).waitRows(dao, chain, 1))
+                .hasSize(1);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                .isLessThan(5_000);
+        insert.get();
+    }
+
+    @Test
+    public void testWaitWithChangeNotifierInTransaction() throws Exception {
+        final Jdbi jdbi = NOTIFIER.install(getJdbi());
+        final OnlineLogDao dao = jdbi.onDemand(OnlineLogDao.class);
+        final DaoConditionChain chain = new DaoConditionChain(DaoCondition.equal("saf_plan_id", "NOTIFY_TX"));
+
+        final CompletableFuture<Void> insert = CompletableFuture.runAsync(() -> jdbi.useTransaction(handle -> {
+            handle.attach(OnlineLogDao.class)
+                    .insert(new OnlineLogEntity(null, "0000000006", LocalDateTime.now(), "NOTIFY_TX", null));
+            // уведомление должно прийти только после фиксации, а не после вставки
+            sleep(500);
+        }));
+        final long start = System.nanoTime();
+        assertThat(new TableWaiter(10, 60_000).withChangeNotifier(NOTIFIER).waitRows(dao, chain, 1))
+                .hasSize(1);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                .isLessThan(5_000);
+        insert.get();
+    }
+
+    @Test
+    public void testReprobeAfterEarlyNotification() {
+        final InMemoryTableChangeNotifier notifier = new InMemoryTableChangeNotifier();
+        final AtomicInteger calls = new AtomicInteger();
+        final CompletableFuture<Void> early = CompletableFuture.runAsync(() -> {
+            sleep(300);
+            // уведомление до фиксации: первая выборка после него еще ничего не видит
+            notifier.notifyChange("online_log");
+        });
+        final long start = System.nanoTime();
+        final List<OnlineLogEntity> rows = new TableWaiter(10, 60_000).withChangeNotifier(notifier)
+                .waitRows("online_log", () -> calls.incrementAndGet() < 3
+                        ? Collections.<OnlineLogEntity>emptyList()
+                        : Collections.singletonList(new OnlineLogEntity()), 1, null);
+
+        assertThat(rows).hasSize(1);
+        assertThat(calls.get()).isEqualTo(3);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                .isLessThan(5_000);
+        early.join();
+    }
+
+    @Test
+    public void testBackoffWaitStrategy() {
+        final WaitStrategy strategy = new BackoffWaitStrategy(10, 2, 100, 400, 2, 0);
+        assertThat(strategy.nextDelayMs(1)).isEqualTo(10);
+        assertThat(strategy.nextDelayMs(2)).isEqualTo(10);
+        assertThat(strategy.nextDelayMs(3)).isEqualTo(100);
+        assertThat(strategy.nextDelayMs(4)).isEqualTo(200);
+        assertThat(strategy.nextDelayMs(5)).isEqualTo(400);
+        assertThat(strategy.nextDelayMs(10)).isEqualTo(400);
+
+        final WaitStrategy jitter = new BackoffWaitStrategy(10, 0, 100, 100, 2, 0.5);
+        assertThat(jitter.nextDelayMs(1)).isBetween(50L, 150L);
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private OnlineLogDao getDao() {
+        return getJdbi().onDemand(OnlineLogDao.class);
+    }
+
+    private Jdbi getJdbi() {
+        return Jdbi.create(dbRule.getDataSource())
+                .installPlugin(new SqlObjectPlugin())
+                .installPlugin(new JpaPlugin());
+    }
+}
@@ -0,0 +1,182 @@
+package ru.iopump.jdbi.db.jfr;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.ImmutableMap;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.awaitility.core.ConditionTimeoutException;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.jpa.JpaPlugin;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.zapodot.junit.db.CompatibilityMode;
+import org.zapodot.junit.db.EmbeddedDatabaseRule;
+import ru.iopump.jdbi.db.dao.DaoCondition;
+import ru.iopump.jdbi.db.dao.DaoConditionChain;
+import ru.iopump.jdbi.db.dao.OnlineLogDao;
+import ru.iopump.jdbi.db.dao.OnlineLogEntity;
+import ru.iopump.jdbi.db.helper.TableAsserts;
+import ru.iopump.jdbi.db.helper.TableWaiter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JfrEventsTest {
+
+    @Rule
+    public final EmbeddedDatabaseRule dbRule = EmbeddedDatabaseRule.h2()
+            .withMode(CompatibilityMode.MySQL)
+            .withInitialSqlFromResource("classpath:db.sql")
+            .build();
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue(JfrEvents.isAvailable());
+    }
+
+    @Test
+    public void testDisabled() {
+        assertThat(JfrEvents.beginTableAssert()).isNull();
+        JfrEvents.commitTableAssert(null, "online_log", "assertRows", 1, true);
+    }
+
+    @Test
+    public void testTableAssertEvent() throws Exception {
+        final List<OnlineLogEntity> records = Arrays.asList(
+                new OnlineLogEntity(1, "0000000001", null, "PLAN_1", null),
+                new OnlineLogEntity(2, "0000000002", null, "PLAN_2", null));
+        final Path file = Files.createTempFile("jdbi-crud", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable("ru.iopump.jdbi.TableAssert");
+                recording.start();
+                TableAsserts.assertRows("online_log", records, ImmutableMap.of("env_id", "0000000002"));
+                recording.stop();
+                recording.dump(file);
+            }
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+            assertThat(events).hasSize(1);
+            assertThat(events.get(0).getString("table")).isEqualTo("online_log");
+            assertThat(events.get(0).getString("assertion")).isEqualTo("assertRows");
+            assertThat(events.get(0).getLong("rowsCompared")).isEqualTo(2);
+            assertThat(events.get(0).getBoolean("passed")).isTrue();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testDaoCallEvent() throws Exception {
+        final Jdbi jdbi = JfrEvents.install(getJdbi());
+        final OnlineLogDao dao = jdbi.onDemand(OnlineLogDao.class);
+        final Path file = Files.createTempFile("jdbi-crud", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable("ru.iopump.jdbi.DaoCall");
+                recording.start();
+                dao.findListByColumnValue(new DaoConditionChain(DaoCondition.equal("env_id", "0000000003")));
+                dao.insertAll(Arrays.asList(
+                        new OnlineLogEntity(null, "0000000007", null, "JFR", null),
+                        new OnlineLogEntity(null, "0000000007", null, "JFR", null)));
+                assertThatThrownBy(() -> jdbi.useHandle(handle -> handle.execute("select * from no_table")))
+                        .isInstanceOf(RuntimeException.class);
+                recording.stop();
+                recording.dump(file);
+            }
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+            // одно событие на операцию DAO, без событий вложенных internal* запросов
+            assertThat(events).hasSize(3);
+            final RecordedEvent find = events.get(0);
+            assertThat(find.getString("table")).isEqualTo("online_log");
+            assertThat(find.getString("operation")).isEqualTo("findListByColumnValue");
+            assertThat(find.getLong("rows")).isEqualTo(2);
+            assertThat(find.getBoolean("error")).isFalse();
+            final RecordedEvent insert = events.get(1);
+            assertThat(insert.getString("operation")).isEqualTo("insertAll");
+            assertThat(insert.getLong("rows")).isEqualTo(2);
+            final RecordedEvent error = events.get(2);
+            assertThat(error.getString("table")).isNull();
+            assertThat(error.getString("operation")).isEqualTo(JfrSqlLogger.RAW_SQL);
+            assertThat(error.getLong("rows")).isEqualTo(-1);
+            assertThat(error.getBoolean("error")).isTrue();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testTableWaitEventPerAttempt() throws Exception {
+        final OnlineLogDao dao = getJdbi().onDemand(OnlineLogDao.class);
+        final DaoConditionChain chain = new DaoConditionChain(DaoCondition.equal("env_id", "not_exists"));
+        final Path file = Files.createTempFile("jdbi-crud", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable("ru.iopump.jdbi.TableWait");
+                recording.start();
+                assertThatThrownBy(() -> new TableWaiter(1, 300).waitRows(dao, chain, 1))
+                        .isInstanceOf(ConditionTimeoutException.class);
+                recording.stop();
+                recording.dump(file);
+            }
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            final List<Integer> attempts = events.stream()
+                    .map(event -> event.getInt("attempt"))
+                    .sorted()
+                    .collect(Collectors.toList());
+
+            // одно событие на каждую попытку, в том числе на последнюю перед таймаутом
+            assertThat(events).hasSizeGreaterThan(1);
+            assertThat(attempts).doesNotHaveDuplicates();
+            assertThat(attempts.get(0)).isEqualTo(1);
+            assertThat(attempts.get(attempts.size() - 1)).isEqualTo(attempts.size());
+            assertThat(events).allSatisfy(event -> assertThat(event.getString("table")).isEqualTo("online_log"));
+            assertThat(events).filteredOn(event -> event.getInt("attempt") == attempts.size())
+                    .extracting(event -> event.getLong("sleepMs"))
+                    .containsExactly(0L);
+            assertThat(events).filteredOn(event -> event.getInt("attempt") < attempts.size())
+                    .allSatisfy(event -> assertThat(event.getLong("sleepMs")).isGreaterThan(0));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testTableWaitEventOnSupplierError() throws Exception {
+        final Path file = Files.createTempFile("jdbi-crud", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable("ru.iopump.jdbi.TableWait");
+                recording.start();
+                assertThatThrownBy(() -> new TableWaiter(1, 300).waitRows("online_log", () -> {
+                    throw new IllegalStateException("fetch error");
+                }, 1, null)).isInstanceOf(IllegalStateException.class);
+                recording.stop();
+                recording.dump(file);
+            }
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+            assertThat(events).hasSize(1);
+            assertThat(events.get(0).getInt("attempt")).isEqualTo(1);
+            assertThat(events.get(0).getLong("rowsSeen")).isEqualTo(-1);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private Jdbi getJdbi() {
+        return Jdbi.create(dbRule.getDataSource())
+                .installPlugin(new SqlObjectPlugin())
+                .installPlugin(new JpaPlugin());
+    }
+}
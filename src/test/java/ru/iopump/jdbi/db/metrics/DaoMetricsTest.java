@@ -0,0 +1,111 @@
+package ru.iopump.jdbi.db.metrics;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.jpa.JpaPlugin;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+import org.junit.Rule;
+import org.junit.Test;
+import org.zapodot.junit.db.CompatibilityMode;
+import org.zapodot.junit.db.EmbeddedDatabaseRule;
+import ru.iopump.jdbi.db.dao.DaoCondition;
+import ru.iopump.jdbi.db.dao.DaoConditionChain;
+import ru.iopump.jdbi.db.dao.OnlineLogDao;
+import ru.iopump.jdbi.db.dao.OnlineLogEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DaoMetricsTest {
+
+    @Rule
+    public final EmbeddedDatabaseRule dbRule = EmbeddedDatabaseRule.h2()
+            .withMode(CompatibilityMode.MySQL)
+            .withInitialSqlFromResource("classpath:db.sql")
+            .build();
+
+    @Test
+    public void testHistogramPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+        final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertThat(snapshot.getCount()).isEqualTo(1000);
+        assertThat(snapshot.getMaxNanos()).isEqualTo(1_000_000);
+        assertThat(snapshot.getMeanNanos()).isEqualTo(500_500);
+        assertThat(snapshot.getValueAtPercentile(50)).isBetween(500_000L, 500_000L + 500_000L / 16);
+        assertThat(snapshot.getValueAtPercentile(99)).isBetween(990_000L, 1_000_000L);
+        assertThat(snapshot.getValueAtPercentile(100)).isEqualTo(1_000_000);
+        assertThat(new LatencyHistogram().snapshot().getValueAtPercentile(99)).isZero();
+    }
+
+    @Test
+    public void testWrap() {
+        final DaoMetrics metrics = new DaoMetrics();
+        final OnlineLogDao dao = metrics.wrap(OnlineLogDao.class, getJdbi().onDemand(OnlineLogDao.class));
+
+        assertThat(DaoMetrics.isMetered(dao)).isTrue();
+        dao.findOne(1);
+        dao.findOne(100);
+        dao.findListByColumnValue(new DaoConditionChain(DaoCondition.equal("env_id", "0000000003")));
+        dao.deleteAll(Arrays.asList(1, 2));
+        dao.insert(entity(null));
+        dao.insertAll(Arrays.asList(entity(null), entity(null), entity(null)));
+        dao.upsert(entity(1000));
+        assertThatThrownBy(() -> dao.findListByColumnValue(new DaoConditionChain(DaoCondition.equal("no_column", 1))))
+                .isInstanceOf(RuntimeException.class);
+
+        assertThat(metrics.snapshot("online_log", "findOne")).get()
+                .hasFieldOrPropertyWithValue("count", 2L)
+                .hasFieldOrPropertyWithValue("rows", 1L)
+                .hasFieldOrPropertyWithValue("errors", 0L);
+        assertThat(metrics.snapshot("online_log", "findListByColumnValue")).get()
+                .hasFieldOrPropertyWithValue("count", 2L)
+                .hasFieldOrPropertyWithValue("rows", 2L)
+                .hasFieldOrPropertyWithValue("errors", 1L);
+        assertThat(metrics.snapshot("online_log", "deleteAll")).get()
+                .hasFieldOrPropertyWithValue("rows", 2L);
+        assertThat(metrics.snapshot("online_log", "insert")).get()
+                .hasFieldOrPropertyWithValue("rows", 1L);
+        assertThat(metrics.snapshot("online_log", "insertAll")).get()
+                .hasFieldOrPropertyWithValue("rows", 3L);
+        assertThat(metrics.snapshot("online_log", "upsert")).get()
+                .hasFieldOrPropertyWithValue("rows", 1L);
+
+        final List<OperationSnapshot> exported = new ArrayList<>();
+        metrics.export(exported::addAll);
+        assertThat(exported).extracting(OperationSnapshot::getOperation)
+                .containsExactly("deleteAll", "findListByColumnValue", "findOne", "insert", "insertAll", "upsert");
+    }
+
+    @Test
+    public void testInstall() {
+        final DaoMetrics metrics = new DaoMetrics();
+        final OnlineLogDao dao = metrics.install(getJdbi()).onDemand(OnlineLogDao.class);
+
+        dao.count();
+        dao.count(new DaoConditionChain(DaoCondition.equal("env_id", "0000000003")));
+        dao.count(new DaoConditionChain(DaoCondition.equal("env_id", "0000000001")));
+
+        assertThat(metrics.snapshot("online_log", "internalCountPrecompiled")).get()
+                .hasFieldOrPropertyWithValue("count", 1L);
+        assertThat(metrics.snapshot("online_log", "internalCountConditions")).get()
+                .hasFieldOrPropertyWithValue("count", 2L);
+    }
+
+    private static OnlineLogEntity entity(Integer id) {
+        return new OnlineLogEntity(id, "0000000009", LocalDateTime.now(), "METRICS", null);
+    }
+
+    private Jdbi getJdbi() {
+        return Jdbi.create(dbRule.getDataSource())
+                .installPlugin(new SqlObjectPlugin())
+                .installPlugin(new JpaPlugin());
+    }
+}
@@ -0,0 +1,116 @@
+package ru.iopump.jdbi.db.metrics;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.jpa.JpaPlugin;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+import org.junit.Rule;
+import org.junit.Test;
+import org.zapodot.junit.db.CompatibilityMode;
+import org.zapodot.junit.db.EmbeddedDatabaseRule;
+import ru.iopump.jdbi.db.dao.DaoCondition;
+import ru.iopump.jdbi.db.dao.DaoConditionChain;
+import ru.iopump.jdbi.db.dao.OnlineLogDao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SlowQueryLogTest {
+
+    @Rule
+    public final EmbeddedDatabaseRule dbRule = EmbeddedDatabaseRule.h2()
+            .withMode(CompatibilityMode.MySQL)
+            .withInitialSqlFromResource("classpath:db.sql")
+            .build();
+
+    @Test
+    public void testCapture() {
+        final SlowQueryLog slowQueryLog = new SlowQueryLog(Duration.ZERO, 1, 3);
+        final OnlineLogDao dao = slowQueryLog.wrap(OnlineLogDao.class,
+                slowQueryLog.install(getJdbi()).onDemand(OnlineLogDao.class));
+
+        dao.findListByColumnValue(new DaoConditionChain(DaoCondition.equal("env_id", "0000000003")));
+
+        final List<SlowQuery> queries = slowQueryLog.dump();
+        assertThat(queries).hasSize(1);
+        final SlowQuery query = queries.get(0);
+        assertThat(query.getSql()).containsIgnoringCase("online_log").containsIgnoringCase("env_id");
+        assertThat(query.getBindings()).contains("0000000003");
+        assertThat(query.getRows()).isEqualTo(2);
+        assertThat(query.getDaoMethod()).isEqualTo("OnlineLogDao.findListByColumnValue");
+        assertThat(query.getStatementMethod()).contains(".internal");
+        assertThat(query.isError()).isFalse();
+    }
+
+    @Test
+    public void testPendingLimitedByCapacity() {
+        final SlowQueryLog slowQueryLog = new SlowQueryLog(Duration.ZERO, 1, 2);
+        final OnlineLogDao dao = slowQueryLog.wrap(OnlineLogDao.class,
+                slowQueryLog.install(getJdbi()).onDemand(OnlineLogDao.class));
+
+        // запрос на каждый id в одном вызове DAO
+        assertThat(dao.deleteAll(Arrays.asList(1, 2, 3), 1)).isEqualTo(3);
+
+        final List<SlowQuery> queries = slowQueryLog.dump();
+        assertThat(queries).hasSize(2);
+        assertThat(queries.get(0).getBindings()).contains("2");
+        assertThat(queries.get(1).getBindings()).contains("3");
+        assertThat(queries).extracting(SlowQuery::getDaoMethod).containsOnly("OnlineLogDao.deleteAll");
+        assertThat(queries).extracting(SlowQuery::getRows).containsOnly(3L);
+    }
+
+    @Test
+    public void testRingBuffer() {
+        final SlowQueryLog slowQueryLog = new SlowQueryLog(Duration.ZERO, 1, 3);
+        final OnlineLogDao dao = slowQueryLog.install(getJdbi()).onDemand(OnlineLogDao.class);
+
+        for (int i = 1; i <= 5; i++) {
+            dao.findOne(i);
+        }
+
+        final List<SlowQuery> queries = slowQueryLog.dump();
+        assertThat(queries).hasSize(3);
+        assertThat(queries.get(2).getBindings()).contains("5");
+        assertThat(queries).extracting(SlowQuery::getRows).containsOnly(-1L);
+
+        slowQueryLog.clear();
+        assertThat(slowQueryLog.dump()).isEmpty();
+    }
+
+    @Test
+    public void testSeparateLogs() {
+        final SlowQueryLog installed = new SlowQueryLog(Duration.ZERO, 1, 3);
+        final SlowQueryLog wrapping = new SlowQueryLog(Duration.ZERO, 1, 3);
+        // DAO обернут журналом, который не подключен к его Jdbi
+        final OnlineLogDao dao = wrapping.wrap(OnlineLogDao.class,
+                installed.install(getJdbi()).onDemand(OnlineLogDao.class));
+
+        dao.count();
+
+        assertThat(installed.dump()).hasSize(1);
+        assertThat(installed.dump().get(0).getDaoMethod()).isNull();
+        assertThat(wrapping.dump()).isEmpty();
+    }
+
+    @Test
+    public void testThresholdAndSampling() {
+        final SlowQueryLog thresholdLog = new SlowQueryLog(Duration.ofMinutes(1), 1, 3);
+        final OnlineLogDao fast = thresholdLog.install(getJdbi()).onDemand(OnlineLogDao.class);
+        final SlowQueryLog unsampled = new SlowQueryLog(Duration.ZERO, 0, 3);
+        final OnlineLogDao sampledOut = unsampled.install(getJdbi()).onDemand(OnlineLogDao.class);
+
+        fast.count();
+        sampledOut.count();
+
+        assertThat(thresholdLog.dump()).isEmpty();
+        assertThat(unsampled.dump()).isEmpty();
+    }
+
+    private Jdbi getJdbi() {
+        return Jdbi.create(dbRule.getDataSource())
+                .installPlugin(new SqlObjectPlugin())
+                .installPlugin(new JpaPlugin());
+    }
+}